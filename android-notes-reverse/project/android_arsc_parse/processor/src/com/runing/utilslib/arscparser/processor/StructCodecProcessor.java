@@ -0,0 +1,474 @@
+package com.runing.utilslib.arscparser.processor;
+
+import com.sun.source.tree.ExpressionTree;
+import com.sun.source.tree.LiteralTree;
+import com.sun.source.tree.NewArrayTree;
+import com.sun.source.tree.Tree;
+import com.sun.source.tree.VariableTree;
+import com.sun.source.util.Trees;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+
+/**
+ * 编译期为每个实现了 Struct 或 Union 的类型生成 {@code <类名>Codec} 编解码器。
+ * <p>
+ * 成员顺序与 ObjectInput 运行时的规则一致：父类成员在前，每个类的成员按 {@code @FieldOrder(n)} 排序，
+ * 有多个成员的类缺少注解时报错，因为运行时的反射顺序不确定；
+ * 数组长度取自成员初始化表达式，例如 {@code char[] name = new char[128]}。
+ * <p>
+ * 处理器在编译的源码中存在 {@code @FieldOrder} 时运行，此时为所有结构体生成编解码器，包括只有一个成员、
+ * 没有注解的结构体。
+ * <p>
+ * 生成的类包含常量 {@code SIZE}、单例 {@code INSTANCE}，以及 {@code decode(ByteBuffer, int)}、
+ * {@code decode(ByteBuffer, int, T)} 和 {@code encode(ByteBuffer, int, T)} 方法。
+ */
+@SupportedAnnotationTypes(StructCodecProcessor.FIELD_ORDER)
+public class StructCodecProcessor extends AbstractProcessor {
+
+  private static final String OBJECTIO = "com.runing.utilslib.arscparser.util.objectio";
+  private static final String STRUCT = OBJECTIO + ".Struct";
+  private static final String UNION = OBJECTIO + ".Union";
+  static final String FIELD_ORDER = OBJECTIO + ".FieldOrder";
+  private static final String STRUCT_CODEC = OBJECTIO + ".StructCodec";
+
+  private Trees trees;
+  private Elements elements;
+  private Types types;
+  private Filer filer;
+
+  private TypeMirror structType;
+  private TypeMirror unionType;
+
+  private final Map<String, Layout> layouts = new HashMap<>();
+  private final Set<String> generated = new HashSet<>();
+
+  /** 结构体成员。 */
+  private static final class Member {
+    String name;
+    /** 基本类型或数组元素类型 */
+    TypeMirror type;
+    /** 非数组为 -1 */
+    int length = -1;
+    int offset;
+    int size;
+  }
+
+  /** 结构体布局。 */
+  private static final class Layout {
+    TypeElement type;
+    boolean union;
+    int size;
+    List<Member> members = new ArrayList<>();
+  }
+
+  /*
+    与 ObjectInput 运行时（StructLayout）的排序规则保持一致。
+   */
+  private final Comparator<VariableElement> fieldComparator = new Comparator<VariableElement>() {
+    @Override
+    public int compare(VariableElement o1, VariableElement o2) {
+      final Integer a1 = fieldOrder(o1);
+      final Integer a2 = fieldOrder(o2);
+      // 静态成员可能没有注解，排在最前面。
+      if (a1 == null || a2 == null) {
+        return a1 == null ? (a2 == null ? 0 : -1) : 1;
+      }
+
+      return a1 - a2;
+    }
+  };
+
+  @Override
+  public synchronized void init(ProcessingEnvironment processingEnv) {
+    super.init(processingEnv);
+    trees = Trees.instance(processingEnv);
+    elements = processingEnv.getElementUtils();
+    types = processingEnv.getTypeUtils();
+    filer = processingEnv.getFiler();
+  }
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    final TypeElement struct = elements.getTypeElement(STRUCT);
+    final TypeElement union = elements.getTypeElement(UNION);
+    if (struct == null || union == null) {
+      return false;
+    }
+
+    structType = struct.asType();
+    unionType = union.asType();
+
+    for (TypeElement type : ElementFilter.typesIn(roundEnv.getRootElements())) {
+      collect(type);
+    }
+
+    // 只声明处理 @FieldOrder，成员顺序注解由本处理器占有。
+    return true;
+  }
+
+  private void collect(TypeElement type) {
+    if (isStructOrUnion(type.asType()) && !type.getModifiers().contains(Modifier.ABSTRACT)) {
+      try {
+        generate(layoutOf(type));
+      } catch (IllegalArgumentException e) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, e.getMessage(), type);
+      }
+    }
+
+    for (TypeElement nested : ElementFilter.typesIn(type.getEnclosedElements())) {
+      collect(nested);
+    }
+  }
+
+  private boolean isStructOrUnion(TypeMirror type) {
+    return type.getKind() == TypeKind.DECLARED &&
+        (types.isAssignable(type, structType) || types.isAssignable(type, unionType));
+  }
+
+  private boolean isUnion(TypeElement type) {
+    return types.isAssignable(type.asType(), unionType);
+  }
+
+  private Integer fieldOrder(VariableElement field) {
+    for (AnnotationMirror annotation : field.getAnnotationMirrors()) {
+      final TypeElement annotationType = (TypeElement) annotation.getAnnotationType().asElement();
+      if (!annotationType.getQualifiedName().contentEquals(FIELD_ORDER)) {
+        continue;
+      }
+
+      for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry :
+          annotation.getElementValues().entrySet()) {
+        if (entry.getKey().getSimpleName().contentEquals("n")) {
+          return (Integer) entry.getValue().getValue();
+        }
+      }
+    }
+
+    return null;
+  }
+
+  /*
+    运行时通过反射获取的成员顺序不确定，有多个成员的类必须为每个成员指定 @FieldOrder，
+    否则生成的编解码器与 StructLayout 的布局可能不一致。
+   */
+  private List<VariableElement> sortedFields(TypeElement type) {
+    final VariableElement[] fields = ElementFilter.fieldsIn(type.getEnclosedElements())
+        .toArray(new VariableElement[0]);
+
+    int instanceFields = 0;
+    VariableElement unordered = null;
+    for (VariableElement field : fields) {
+      if (!field.getModifiers().contains(Modifier.STATIC)) {
+        instanceFields++;
+        if (unordered == null && fieldOrder(field) == null) {
+          unordered = field;
+        }
+      }
+    }
+
+    if (instanceFields > 1 && unordered != null) {
+      throw new IllegalArgumentException("field without @FieldOrder in a struct with several fields: " +
+          type.getQualifiedName() + "." + unordered.getSimpleName());
+    }
+
+    Arrays.sort(fields, fieldComparator);
+    return Arrays.asList(fields);
+  }
+
+  /*
+    父类成员在前（由近及远），本类成员在后。
+   */
+  private List<VariableElement> fullDeclaredFields(TypeElement type) {
+    List<VariableElement> fullFields = new ArrayList<>();
+
+    TypeMirror parent = type.getSuperclass();
+    while (parent.getKind() == TypeKind.DECLARED) {
+      final TypeElement parentElement = (TypeElement) ((DeclaredType) parent).asElement();
+      if (parentElement.getQualifiedName().contentEquals(Object.class.getName())) {
+        break;
+      }
+
+      fullFields.addAll(sortedFields(parentElement));
+      parent = parentElement.getSuperclass();
+    }
+
+    fullFields.addAll(sortedFields(type));
+    return fullFields;
+  }
+
+  private Layout layoutOf(TypeElement type) {
+    final String key = type.getQualifiedName().toString();
+    Layout layout = layouts.get(key);
+    if (layout != null) {
+      return layout;
+    }
+
+    layout = new Layout();
+    layout.type = type;
+    layout.union = isUnion(type);
+
+    int index = 0;
+    for (VariableElement field : fullDeclaredFields(type)) {
+      if (field.getModifiers().contains(Modifier.STATIC)) {
+        continue;
+      }
+
+      final Member member = new Member();
+      member.name = field.getSimpleName().toString();
+      member.offset = index;
+
+      TypeMirror fieldType = field.asType();
+      if (fieldType.getKind() == TypeKind.ARRAY) {
+        member.length = arrayLength(field);
+        fieldType = ((ArrayType) fieldType).getComponentType();
+      }
+
+      member.type = fieldType;
+      member.size = sizeOf(fieldType, field) * Math.max(member.length, 1);
+      layout.members.add(member);
+
+      // Union 由于成员共用内存，所以需要从头读取。
+      if (layout.union) {
+        layout.size = Math.max(layout.size, member.size);
+      } else {
+        index += member.size;
+        layout.size = index;
+      }
+    }
+
+    layouts.put(key, layout);
+    return layout;
+  }
+
+  private int sizeOf(TypeMirror type, Element where) {
+    switch (type.getKind()) {
+      case BYTE:
+      case CHAR:
+        // char 在文件中占用一个字节。
+        return Byte.BYTES;
+      case SHORT:
+        return Short.BYTES;
+      case INT:
+        return Integer.BYTES;
+      case LONG:
+        return Long.BYTES;
+      case DECLARED:
+        if (isStructOrUnion(type)) {
+          return layoutOf((TypeElement) ((DeclaredType) type).asElement()).size;
+        }
+        throw new IllegalArgumentException("Not a struct or union type: " + type + " (" + where + ")");
+      default:
+        throw new IllegalArgumentException("Not a struct or union type: " + type + " (" + where + ")");
+    }
+  }
+
+  private int arrayLength(VariableElement field) {
+    final Tree tree = trees.getTree(field);
+    final ExpressionTree initializer = tree instanceof VariableTree ? ((VariableTree) tree).getInitializer() : null;
+
+    if (initializer instanceof NewArrayTree) {
+      final List<? extends ExpressionTree> dimensions = ((NewArrayTree) initializer).getDimensions();
+      if (dimensions.size() == 1 && dimensions.get(0) instanceof LiteralTree) {
+        final Object value = ((LiteralTree) dimensions.get(0)).getValue();
+        if (value instanceof Integer && (Integer) value > 0) {
+          return (Integer) value;
+        }
+      }
+    }
+
+    throw new IllegalArgumentException("array field must be initialized with a constant length: " +
+        field.getEnclosingElement() + "." + field);
+  }
+
+  private String codecName(TypeElement type) {
+    final String packageName = elements.getPackageOf(type).getQualifiedName().toString();
+    final String binaryName = elements.getBinaryName(type).toString();
+    final String simpleName = packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1);
+    return simpleName.replace('$', '_') + "Codec";
+  }
+
+  private String qualifiedCodecName(TypeMirror type) {
+    final TypeElement element = (TypeElement) ((DeclaredType) type).asElement();
+    final String packageName = elements.getPackageOf(element).getQualifiedName().toString();
+    return (packageName.isEmpty() ? "" : packageName + ".") + codecName(element);
+  }
+
+  private void generate(Layout layout) {
+    final TypeElement type = layout.type;
+    final String typeName = type.getQualifiedName().toString();
+    if (!generated.add(typeName)) {
+      return;
+    }
+
+    final String packageName = elements.getPackageOf(type).getQualifiedName().toString();
+    final String codecName = codecName(type);
+
+    StringBuilder out = new StringBuilder();
+    if (!packageName.isEmpty()) {
+      out.append("package ").append(packageName).append(";\n\n");
+    }
+
+    out.append("import java.nio.ByteBuffer;\n\n")
+        .append("/**\n")
+        .append(" * {@link ").append(typeName).append("} 的编解码器，由 StructCodecProcessor 生成，请勿修改。\n")
+        .append(" */\n")
+        .append("public final class ").append(codecName)
+        .append(" implements ").append(STRUCT_CODEC).append('<').append(typeName).append("> {\n\n")
+        .append("  public static final int SIZE = ").append(layout.size).append(";\n\n")
+        .append("  public static final ").append(codecName).append(" INSTANCE = new ").append(codecName)
+        .append("();\n\n")
+        .append("  private ").append(codecName).append("() {}\n\n")
+        .append("  @Override\n")
+        .append("  public int size() {\n")
+        .append("    return SIZE;\n")
+        .append("  }\n\n");
+
+    out.append("  @Override\n")
+        .append("  public ").append(typeName).append(" decode(ByteBuffer buffer, int offset) {\n")
+        .append("    return decode(buffer, offset, new ").append(typeName).append("());\n")
+        .append("  }\n\n");
+
+    out.append("  @Override\n")
+        .append("  public ").append(typeName).append(" decode(ByteBuffer buffer, int offset, ").append(typeName)
+        .append(" object) {\n")
+        .append("    if (object == null) {\n")
+        .append("      object = new ").append(typeName).append("();\n")
+        .append("    }\n");
+    for (Member member : layout.members) {
+      appendDecode(out, member);
+    }
+    out.append("    return object;\n")
+        .append("  }\n\n");
+
+    out.append("  @Override\n")
+        .append("  public void encode(ByteBuffer buffer, int offset, ").append(typeName).append(" value) {\n");
+    for (Member member : layout.members) {
+      appendEncode(out, member);
+      // 联合体成员共用内存，只写入第一个成员。
+      if (layout.union) {
+        break;
+      }
+    }
+    out.append("  }\n")
+        .append("}\n");
+
+    final String fileName = packageName.isEmpty() ? codecName : packageName + "." + codecName;
+    try {
+      final JavaFileObject file = filer.createSourceFile(fileName, type);
+      try (Writer writer = file.openWriter()) {
+        writer.write(out.toString());
+      }
+    } catch (IOException e) {
+      processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "write codec error: " + e, type);
+    }
+  }
+
+  /*
+    reuse 为嵌套结构体成员当前的值，解码时复用。
+   */
+  private String readExpression(TypeMirror type, String offset, String reuse) {
+    switch (type.getKind()) {
+      case BYTE:
+        return "buffer.get(" + offset + ")";
+      case CHAR:
+        return "(char) buffer.get(" + offset + ")";
+      case SHORT:
+        return "buffer.getShort(" + offset + ")";
+      case INT:
+        return "buffer.getInt(" + offset + ")";
+      case LONG:
+        return "buffer.getLong(" + offset + ")";
+      default:
+        return qualifiedCodecName(type) + ".INSTANCE.decode(buffer, " + offset + ", " + reuse + ")";
+    }
+  }
+
+  private String writeStatement(TypeMirror type, String offset, String value, String indent) {
+    switch (type.getKind()) {
+      case BYTE:
+        return indent + "buffer.put(" + offset + ", " + value + ");\n";
+      case CHAR:
+        return indent + "buffer.put(" + offset + ", (byte) " + value + ");\n";
+      case SHORT:
+        return indent + "buffer.putShort(" + offset + ", " + value + ");\n";
+      case INT:
+        return indent + "buffer.putInt(" + offset + ", " + value + ");\n";
+      case LONG:
+        return indent + "buffer.putLong(" + offset + ", " + value + ");\n";
+      default:
+        return indent + "if (" + value + " != null) {\n" +
+            indent + "  " + qualifiedCodecName(type) + ".INSTANCE.encode(buffer, " + offset + ", " + value + ");\n" +
+            indent + "}\n";
+    }
+  }
+
+  private static String offsetOf(Member member) {
+    return member.offset == 0 ? "offset" : "offset + " + member.offset;
+  }
+
+  private void appendDecode(StringBuilder out, Member member) {
+    final String field = "object." + member.name;
+    if (member.length < 0) {
+      out.append("    ").append(field).append(" = ").append(readExpression(member.type, offsetOf(member), field))
+          .append(";\n");
+      return;
+    }
+
+    // 优先填充对象构造时已创建的数组，数组中已有的结构体元素同样复用。
+    final int itemSize = member.size / member.length;
+    out.append("    if (").append(field).append(" == null || ").append(field).append(".length != ")
+        .append(member.length).append(") {\n")
+        .append("      ").append(field).append(" = new ").append(types.erasure(member.type))
+        .append('[').append(member.length).append("];\n")
+        .append("    }\n")
+        .append("    for (int i = 0; i < ").append(member.length).append("; i++) {\n")
+        .append("      ").append(field).append("[i] = ")
+        .append(readExpression(member.type, offsetOf(member) + " + i * " + itemSize, field + "[i]")).append(";\n")
+        .append("    }\n");
+  }
+
+  private void appendEncode(StringBuilder out, Member member) {
+    final String field = "value." + member.name;
+    if (member.length < 0) {
+      out.append(writeStatement(member.type, offsetOf(member), field, "    "));
+      return;
+    }
+
+    final int itemSize = member.size / member.length;
+    out.append("    if (").append(field).append(" != null) {\n")
+        .append("      for (int i = 0; i < ").append(member.length).append(" && i < ").append(field)
+        .append(".length; i++) {\n")
+        .append(writeStatement(member.type, offsetOf(member) + " + i * " + itemSize, field + "[i]", "        "))
+        .append("      }\n")
+        .append("    }\n");
+  }
+}
@@ -1,6 +1,7 @@
 package com.runing.utilslib.arscparser;
 
 import com.runing.utilslib.arscparser.core.ArscParser;
+import com.runing.utilslib.arscparser.core.ArscPrinter;
 import com.runing.utilslib.arscparser.xml.AXmlPrinter;
 
 import java.io.IOException;
@@ -18,7 +19,7 @@ public class Main {
 
   private static void parseArscFile() {
     try {
-      new ArscParser().parse("./file/app.arsc");
+      new ArscPrinter().print(new ArscParser().parse("./file/app.arsc"));
     } catch (IOException e) {
       e.printStackTrace();
     }
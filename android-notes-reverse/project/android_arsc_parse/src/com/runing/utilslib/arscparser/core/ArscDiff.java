@@ -0,0 +1,359 @@
+package com.runing.utilslib.arscparser.core;
+
+import com.runing.utilslib.arscparser.table.EntryOffsets;
+import com.runing.utilslib.arscparser.table.ResourceConfig;
+import com.runing.utilslib.arscparser.type.ResTableConfig;
+import com.runing.utilslib.arscparser.type.ResTableType;
+import com.runing.utilslib.arscparser.type.ResValue;
+import com.runing.utilslib.arscparser.util.objectio.ObjectInput;
+import com.runing.utilslib.arscparser.util.objectio.StructInput;
+import com.runing.utilslib.arscparser.view.EntryView;
+import com.runing.utilslib.arscparser.view.MapView;
+import com.runing.utilslib.arscparser.view.ValueView;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * 比较两个资源表的差异，结果按资源名称和配置给出。
+ * <p>
+ * 遍历时不解码资源项，只保存每个类型数据块的数据和校验值。两个文件的字符串池相同时，
+ * 校验值相同的数据块直接视为相同，只对不同的数据块比较资源项；字符串池不同时字符串索引可能整体偏移，
+ * 所有数据块都比较资源项。资源项的散列值由其原始数据计算，其中名称和字符串值按内容参与计算，
+ * 因此只有字符串索引变化的资源项不会被报告。
+ */
+public class ArscDiff {
+
+  /**
+   * 一个资源项在某一配置下的变化。
+   */
+  public static final class Change {
+
+    public enum Kind {
+      /** 只存在于新文件 */
+      ADDED,
+      /** 只存在于旧文件 */
+      REMOVED,
+      /** 两个文件中都存在但内容不同 */
+      CHANGED
+    }
+
+    private final Kind kind;
+    private final String packageName;
+    private final String name;
+    private final ResourceConfig config;
+    private final int oldId;
+    private final int newId;
+
+    Change(Kind kind, String packageName, String name, ResourceConfig config, int oldId, int newId) {
+      this.kind = kind;
+      this.packageName = packageName;
+      this.name = name;
+      this.config = config;
+      this.oldId = oldId;
+      this.newId = newId;
+    }
+
+    public Kind kind() {
+      return kind;
+    }
+
+    public String packageName() {
+      return packageName;
+    }
+
+    /** 资源名称 type/name */
+    public String name() {
+      return name;
+    }
+
+    public ResourceConfig config() {
+      return config;
+    }
+
+    /** 旧文件中的资源 ID，新增的资源为 0 */
+    public int oldId() {
+      return oldId;
+    }
+
+    /** 新文件中的资源 ID，删除的资源为 0 */
+    public int newId() {
+      return newId;
+    }
+
+    @Override
+    public String toString() {
+      return kind + " " + name + " [" + config + "]" +
+          (oldId != 0 ? " old=0x" + Integer.toHexString(oldId) : "") +
+          (newId != 0 ? " new=0x" + Integer.toHexString(newId) : "");
+    }
+  }
+
+  /*
+    一个类型数据块，数据在比较时才按需读取资源项。
+   */
+  private static final class Chunk {
+    final String packageName;
+    final int packageId;
+    final String typeName;
+    final ResourceConfig config;
+    final EntryOffsets entryOffsets;
+    final ByteBuffer buffer;
+    final int entriesStart;
+    final String[] keyStrings;
+    final long checksum;
+
+    Chunk(String packageName, int packageId, String typeName, ResourceConfig config, EntryOffsets entryOffsets,
+          ByteBuffer buffer, int entriesStart, String[] keyStrings, long checksum) {
+      this.packageName = packageName;
+      this.packageId = packageId;
+      this.typeName = typeName;
+      this.config = config;
+      this.entryOffsets = entryOffsets;
+      this.buffer = buffer;
+      this.entriesStart = entriesStart;
+      this.keyStrings = keyStrings;
+      this.checksum = checksum;
+    }
+  }
+
+  /*
+    收集一个文件中的字符串池和类型数据块，不访问资源项。
+   */
+  private static final class ChunkCollector extends ArscVisitor {
+    String[] strings = new String[0];
+    /** 按 包名/类型名/配置 索引的类型数据块 */
+    final Map<String, Chunk> chunks = new LinkedHashMap<>();
+    /** 按包名索引的资源项名称字符串池 */
+    final Map<String, String[]> keyPools = new HashMap<>();
+
+    private String packageName;
+    private int packageId;
+    private String[] typeStrings = new String[0];
+    private String[] keyStrings = new String[0];
+    private int typeId;
+    private ResTableConfig config;
+    private EntryOffsets entryOffsets;
+    private final CRC32C crc = new CRC32C();
+
+    @Override
+    public void visitStrings(int pool, String[] strings) {
+      switch (pool) {
+        case POOL_GLOBAL:
+          this.strings = strings;
+          break;
+
+        case POOL_TYPE:
+          typeStrings = strings;
+          break;
+
+        case POOL_KEY:
+          keyStrings = strings;
+          keyPools.put(packageName, strings);
+          break;
+
+        default:
+      }
+    }
+
+    @Override
+    public boolean visitPackage(int id, String name) {
+      packageName = name;
+      packageId = id;
+      typeStrings = new String[0];
+      keyStrings = new String[0];
+      return true;
+    }
+
+    @Override
+    public boolean visitType(int typeId, ResTableConfig config, EntryOffsets entryOffsets) {
+      this.typeId = typeId;
+      this.config = config;
+      this.entryOffsets = entryOffsets;
+      return true;
+    }
+
+    @Override
+    public boolean visitTypeChunk(ByteBuffer chunk, int entriesStart) {
+      crc.reset();
+      crc.update(chunk.duplicate());
+
+      final String typeName = typeId >= 1 && typeId <= typeStrings.length ?
+          typeStrings[typeId - 1] : "0x" + Integer.toHexString(typeId);
+      final ResourceConfig resourceConfig = ResourceConfig.of(config);
+
+      // 同一类型同一配置出现多个数据块时按出现顺序区分。
+      final String baseKey = packageName + '/' + typeName + '/' + resourceConfig;
+      String key = baseKey;
+      for (int i = 1; chunks.containsKey(key); i++) {
+        key = baseKey + '#' + i;
+      }
+
+      chunks.put(key, new Chunk(packageName, packageId, typeName, resourceConfig, entryOffsets, chunk,
+          entriesStart, keyStrings, (long) chunk.remaining() << 32 | crc.getValue()));
+      return false;
+    }
+  }
+
+  private final EntryView entryView = new EntryView();
+  private final MapView mapView = new MapView();
+  private final ValueView valueView = new ValueView();
+
+  /**
+   * @param oldFile 旧文件。
+   * @param newFile 新文件。
+   * @return 按旧文件中数据块的顺序排列的变化，新文件中新增的数据块排在最后。
+   * @throws IOException 可能出现的 io 异常。
+   */
+  public List<Change> diff(String oldFile, String newFile) throws IOException {
+    try (ObjectInput oldInput = new ObjectInput(oldFile, false, true);
+         ObjectInput newInput = new ObjectInput(newFile, false, true)) {
+      return diff(oldInput, newInput);
+    }
+  }
+
+  /**
+   * @param oldInput 旧文件输入，由调用方负责关闭。
+   * @param newInput 新文件输入，由调用方负责关闭。
+   * @return 按旧文件中数据块的顺序排列的变化，新文件中新增的数据块排在最后。
+   * @throws IOException 可能出现的 io 异常。
+   */
+  public List<Change> diff(StructInput oldInput, StructInput newInput) throws IOException {
+    final ChunkCollector oldTable = new ChunkCollector();
+    final ChunkCollector newTable = new ChunkCollector();
+    new ArscParser().accept(oldInput, oldTable);
+    new ArscParser().accept(newInput, newTable);
+
+    // 字符串池只比较一次，结果按包名保存。
+    final boolean sameStrings = Arrays.equals(oldTable.strings, newTable.strings);
+    final Map<String, Boolean> samePools = new HashMap<>();
+    for (Map.Entry<String, String[]> entry : oldTable.keyPools.entrySet()) {
+      samePools.put(entry.getKey(),
+          sameStrings && Arrays.equals(entry.getValue(), newTable.keyPools.get(entry.getKey())));
+    }
+
+    final List<Change> changes = new ArrayList<>();
+    for (Map.Entry<String, Chunk> entry : oldTable.chunks.entrySet()) {
+      final Chunk oldChunk = entry.getValue();
+      final Chunk newChunk = newTable.chunks.get(entry.getKey());
+
+      if (newChunk == null) {
+        diffEntries(oldTable, oldChunk, newTable, null, changes);
+        continue;
+      }
+
+      // 字符串池相同时数据相同的数据块内容一定相同。
+      if (oldChunk.checksum == newChunk.checksum && Boolean.TRUE.equals(samePools.get(oldChunk.packageName))) {
+        continue;
+      }
+      diffEntries(oldTable, oldChunk, newTable, newChunk, changes);
+    }
+
+    for (Map.Entry<String, Chunk> entry : newTable.chunks.entrySet()) {
+      if (!oldTable.chunks.containsKey(entry.getKey())) {
+        diffEntries(oldTable, null, newTable, entry.getValue(), changes);
+      }
+    }
+    return changes;
+  }
+
+  /*
+    按资源项名称比较两个数据块，其中一个可以为 null。
+   */
+  private void diffEntries(ChunkCollector oldTable, Chunk oldChunk, ChunkCollector newTable, Chunk newChunk,
+                           List<Change> changes) {
+    final Map<String, long[]> oldEntries = oldChunk != null ?
+        hashEntries(oldTable, oldChunk) : Collections.<String, long[]>emptyMap();
+    final Map<String, long[]> newEntries = newChunk != null ?
+        hashEntries(newTable, newChunk) : Collections.<String, long[]>emptyMap();
+    final Chunk chunk = oldChunk != null ? oldChunk : newChunk;
+
+    for (Map.Entry<String, long[]> entry : oldEntries.entrySet()) {
+      final long[] oldValue = entry.getValue();
+      final long[] newValue = newEntries.get(entry.getKey());
+      final String name = chunk.typeName + '/' + entry.getKey();
+
+      if (newValue == null) {
+        changes.add(new Change(Change.Kind.REMOVED, chunk.packageName, name, chunk.config, (int) oldValue[1], 0));
+      } else if (oldValue[0] != newValue[0]) {
+        changes.add(new Change(Change.Kind.CHANGED, chunk.packageName, name, chunk.config, (int) oldValue[1],
+            (int) newValue[1]));
+      }
+    }
+
+    for (Map.Entry<String, long[]> entry : newEntries.entrySet()) {
+      if (!oldEntries.containsKey(entry.getKey())) {
+        changes.add(new Change(Change.Kind.ADDED, chunk.packageName, chunk.typeName + '/' + entry.getKey(),
+            chunk.config, 0, (int) entry.getValue()[1]));
+      }
+    }
+  }
+
+  /*
+    计算数据块中每个资源项的散列值，返回 名称 -> {散列值, 资源 ID}，按槽位顺序排列。
+   */
+  private Map<String, long[]> hashEntries(ChunkCollector table, Chunk chunk) {
+    final EntryOffsets entryOffsets = chunk.entryOffsets;
+    final Map<String, long[]> result = new LinkedHashMap<>();
+    final int idPrefix = (chunk.packageId & 0xFF) << 24;
+    final int typeId = chunk.buffer.get(8) & 0xFF;
+
+    for (int slot = 0; slot < entryOffsets.slotCount(); slot++) {
+      final int offset = entryOffsets.offsetAt(slot);
+      if (offset == ResTableType.NO_ENTRY) {
+        continue;
+      }
+
+      entryView.moveTo(chunk.buffer, chunk.entriesStart + offset);
+      final int keyIndex = entryView.keyIndex();
+      final String key = keyIndex >= 0 && keyIndex < chunk.keyStrings.length ?
+          chunk.keyStrings[keyIndex] : "#" + entryOffsets.indexAt(slot);
+
+      long hash = mix(entryView.flags() & 0xFFFF);
+      if (!entryView.isComplex()) {
+        valueView.moveTo(chunk.buffer, entryView.offset() + entryView.size());
+        hash = hashValue(table, hash, valueView.dataType(), valueView.data());
+      } else {
+        hash = mix(hash ^ entryView.parent());
+        int index = entryView.offset() + entryView.size();
+        for (int i = 0; i < entryView.count(); i++) {
+          mapView.moveTo(chunk.buffer, index);
+          hash = mix(hash ^ mapView.name());
+          hash = hashValue(table, hash, mapView.dataType(), mapView.data());
+          index += MapView.SIZE;
+        }
+      }
+
+      result.put(key, new long[]{hash, idPrefix | typeId << 16 | entryOffsets.indexAt(slot)});
+    }
+    return result;
+  }
+
+  private static long hashValue(ChunkCollector table, long hash, byte dataType, int data) {
+    hash = mix(hash ^ dataType);
+
+    // 字符串按内容参与计算，字符串池中位置的变化不影响结果。
+    if (dataType == ResValue.TYPE_STRING && data >= 0 && data < table.strings.length && table.strings[data] != null) {
+      final String string = table.strings[data];
+      return mix(hash ^ ((long) string.length() << 32 | (string.hashCode() & 0xFFFFFFFFL)));
+    }
+    return mix(hash ^ (data & 0xFFFFFFFFL));
+  }
+
+  /*
+    64 位混合函数（SplitMix64 的最后一步）。
+   */
+  private static long mix(long z) {
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+}
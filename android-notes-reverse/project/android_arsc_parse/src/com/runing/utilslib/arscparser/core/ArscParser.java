@@ -1,182 +1,340 @@
 package com.runing.utilslib.arscparser.core;
 
+import com.runing.utilslib.arscparser.table.EntryOffsets;
+import com.runing.utilslib.arscparser.table.ResourceTable;
 import com.runing.utilslib.arscparser.type.*;
+import com.runing.utilslib.arscparser.util.Formatter;
 import com.runing.utilslib.arscparser.util.objectio.ObjectInput;
+import com.runing.utilslib.arscparser.util.objectio.StructInput;
+import com.runing.utilslib.arscparser.view.EntryView;
+import com.runing.utilslib.arscparser.view.MapView;
+import com.runing.utilslib.arscparser.view.ValueView;
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
-import java.util.List;
-
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Arsc 文件解析器。
+ * <p>
+ * {@link #accept(StructInput, ArscVisitor)} 按文件顺序遍历数据块并回调 {@link ArscVisitor}，访问者拒绝的数据块直接跳过；
+ * {@link #parse(StructInput)} 基于同一遍历将资源表解析为不可变的 {@link ResourceTable}，解析过程不输出任何内容。
+ * <p>
+ * 需要查看解析结果时使用 {@link ArscPrinter}。
+ */
 @SuppressWarnings("ALL")
 public class ArscParser {
 
   private long mIndex;
-  private String[] stringPool;
-
-  private void parseResTableType(ObjectInput objectInput) throws IOException {
-    final ResTableHeader tableType = objectInput.read(ResTableHeader.class, mIndex);
-    System.out.println("resource table header:");
-    System.out.println(tableType);
+  private ArscVisitor visitor;
+
+  /** 当前资源包 ID，不在资源包中时为 -1 */
+  private int packageId;
+  private String[] typeStrings;
+  private String[] keyStrings;
+  /** 当前资源包中被访问者跳过的类型 */
+  private final boolean[] skippedTypes = new boolean[256];
+  /** 当前资源包中各类型规范的资源项个数，用于稀疏类型数据块，未知时为 -1 */
+  private final int[] specEntryCounts = new int[256];
+
+  private final EntryView entryView = new EntryView();
+  private final MapView mapView = new MapView();
+  private final ValueView valueView = new ValueView();
+
+  /*
+    读取数据块头部并检查其大小是否位于父数据块范围内，防止损坏的文件导致越界或死循环。
+   */
+  private ResChunkHeader readChunkHeader(StructInput objectInput, long parentEnd) throws IOException {
+    ResChunkHeader header = objectInput.read(ResChunkHeader.class, mIndex);
+
+    final int headerSize = header.headerSize & 0xFFFF;
+    final long size = header.size & 0xFFFFFFFFL;
+    if (headerSize < ObjectInput.sizeOf(ResChunkHeader.class) || size < headerSize || mIndex + size > parentEnd) {
+      throw new IOException("bad chunk at " + mIndex + ": " + header);
+    }
 
-    // 向下移动资源表头部的大小。
-    mIndex += tableType.header.headerSize;
+    return header;
   }
 
-  private void parseStringPool(ObjectInput objectInput) throws IOException {
-    final long stringPoolIndex = mIndex;
-    ResStringPoolHeader stringPoolHeader = objectInput.read(ResStringPoolHeader.class, stringPoolIndex);
-    System.out.println("string pool header:");
-    System.out.println(stringPoolHeader);
+  private void parseResTableType(StructInput objectInput) throws IOException {
+    final long tableIndex = mIndex;
+    final ResTableHeader tableType = objectInput.read(ResTableHeader.class, tableIndex);
+    final long tableEnd = tableIndex + (tableType.header.size & 0xFFFFFFFFL);
 
-    StringPoolChunkParser stringPoolChunkParser = new StringPoolChunkParser();
-    stringPoolChunkParser.parseStringPoolChunk(objectInput, stringPoolHeader, stringPoolIndex);
+    // 向下移动资源表头部的大小。
+    mIndex += tableType.header.headerSize;
 
-    System.out.println();
-    System.out.println("string index array:");
-    System.out.println(Arrays.toString(stringPoolChunkParser.getStringIndexArray()));
+    // 资源表包含全局字符串池和若干资源包。
+    while (mIndex < tableEnd) {
+      ResChunkHeader header = readChunkHeader(objectInput, tableEnd);
 
-    System.out.println();
-    System.out.println("style index array:");
-    System.out.println(Arrays.toString(stringPoolChunkParser.getStyleIndexArray()));
+      switch (header.type) {
+        case ResourceTypes.RES_STRING_POOL_TYPE:
+          parseStringPool(objectInput, ArscVisitor.POOL_GLOBAL);
+          break;
 
-    stringPool = stringPoolChunkParser.getStringPool();
+        case ResourceTypes.RES_TABLE_PACKAGE_TYPE:
+          parseTablePackageType(objectInput);
+          break;
 
-    System.out.println();
-    System.out.println("string pool:");
-    System.out.println(Arrays.toString(stringPool));
+        default:
+          mIndex += header.size;
+      }
+    }
+  }
 
-    System.out.println();
-    System.out.println("style pool:");
-    final List<ResStringPoolSpan>[] stylePool = stringPoolChunkParser.getStylePool();
+  private void parseStringPool(StructInput objectInput, int pool) throws IOException {
+    final long stringPoolIndex = mIndex;
+    ResStringPoolHeader stringPoolHeader = objectInput.read(ResStringPoolHeader.class, stringPoolIndex);
 
-    System.out.println(Arrays.toString(stylePool));
+    if (visitor.visitStringPool(pool, stringPoolHeader.stringCount)) {
+      StringPoolChunkParser stringPoolChunkParser = new StringPoolChunkParser();
+      stringPoolChunkParser.parseStringPoolChunk(objectInput, stringPoolHeader, stringPoolIndex);
 
-    System.out.println();
-    System.out.println("style detail:");
-    for (List<ResStringPoolSpan> spans : stylePool) {
-      System.out.println("---------");
-      for (ResStringPoolSpan span : spans) {
-        System.out.println(stringPool[span.name.index]);
+      final String[] strings = stringPoolChunkParser.getStringPool();
+      if (pool == ArscVisitor.POOL_TYPE) {
+        typeStrings = strings;
+      } else if (pool == ArscVisitor.POOL_KEY) {
+        keyStrings = strings;
       }
+
+      visitor.visitStrings(pool, strings);
     }
 
     // 向下移动字符串池的大小。
     mIndex += stringPoolHeader.header.size;
   }
 
-  private void parseTablePackageType(ObjectInput objectInput) throws IOException {
+  private void parseTablePackageType(StructInput objectInput) throws IOException {
     final long tablePackageIndex = mIndex;
     final ResTablePackage tablePackage = objectInput.read(ResTablePackage.class, tablePackageIndex);
-
-    System.out.println("table package type:");
-    System.out.println(tablePackage);
+    final long packageEnd = tablePackageIndex + (tablePackage.header.size & 0xFFFFFFFFL);
+
+    packageId = tablePackage.id;
+    final long typeStringsIndex = tablePackageIndex + tablePackage.typeStrings;
+    final long keyStringsIndex = tablePackageIndex + tablePackage.keyStrings;
+    typeStrings = null;
+    keyStrings = null;
+    Arrays.fill(skippedTypes, false);
+    Arrays.fill(specEntryCounts, -1);
+
+    if (!visitor.visitPackage(tablePackage.id, Formatter.fromUtf16(tablePackage.name))) {
+      // 跳过整个资源包。
+      mIndex = packageEnd;
+      packageId = -1;
+      return;
+    }
 
     // 向下移动资源表元信息头部的大小。
     mIndex += tablePackage.header.headerSize;
+
+    // 资源包包含类型字符串池、资源项名称字符串池，以及各个类型的类型规范和类型数据块。
+    while (mIndex < packageEnd) {
+      ResChunkHeader header = readChunkHeader(objectInput, packageEnd);
+
+      switch (header.type) {
+        case ResourceTypes.RES_STRING_POOL_TYPE:
+          if (mIndex == typeStringsIndex) {
+            parseStringPool(objectInput, ArscVisitor.POOL_TYPE);
+          } else if (mIndex == keyStringsIndex) {
+            parseStringPool(objectInput, ArscVisitor.POOL_KEY);
+          } else {
+            mIndex += header.size;
+          }
+          break;
+
+        case ResourceTypes.RES_TABLE_TYPE_SPEC_TYPE:
+          parseTableTypeSpecType(objectInput);
+          break;
+
+        case ResourceTypes.RES_TABLE_TYPE_TYPE:
+          parseTableTypeType(objectInput);
+          break;
+
+        case ResourceTypes.RES_TABLE_LIBRARY_TYPE:
+          parseTableLibraryType(objectInput);
+          break;
+
+        // 未知数据块按大小跳过。
+        default:
+          mIndex += header.size;
+      }
+    }
+
+    visitor.visitPackageEnd(tablePackage.id);
+    packageId = -1;
   }
 
-  private void parseTableTypeSpecType(ObjectInput objectInput) throws IOException {
+  private void parseTableTypeSpecType(StructInput objectInput) throws IOException {
     final long typeSpecIndex = mIndex;
     ResTableTypeSpec tableTypeSpec = objectInput.read(ResTableTypeSpec.class, typeSpecIndex);
 
-    System.out.println("table type spec type:");
-    System.out.println(tableTypeSpec);
-
+    final int typeId = tableTypeSpec.id & 0xFF;
     int[] entryArray = TableTypeChunkParser.parseSpecEntryArray(objectInput, tableTypeSpec, typeSpecIndex);
+    final String name = typeStrings != null && typeId >= 1 && typeId <= typeStrings.length ?
+        typeStrings[typeId - 1] : null;
 
-    System.out.println();
-    System.out.println("table type spec type entry array:");
-    System.out.println(Arrays.toString(entryArray));
+    specEntryCounts[typeId] = entryArray.length;
+    skippedTypes[typeId] = !visitor.visitTypeSpec(typeId, name, entryArray);
 
     // 向下移动资源表类型规范内容的大小。
     mIndex += tableTypeSpec.header.size;
   }
 
-  private void parseTableTypeType(ObjectInput objectInput) throws IOException {
-    final long tableTypeIndex = mIndex;
-    final ResTableType tableType = objectInput.read(ResTableType.class, tableTypeIndex);
+  private void parseTableLibraryType(StructInput objectInput) throws IOException {
+    final long libraryIndex = mIndex;
+    final ResTableLibHeader libHeader = objectInput.read(ResTableLibHeader.class, libraryIndex);
+    final int entrySize = ObjectInput.sizeOf(ResTableLibEntry.class);
 
-    System.out.println("table type type:");
-    System.out.println(tableType);
+    // 按头部 size 限制个数，避免个数损坏时越界读取。
+    final long maxCount = (libHeader.header.size - libHeader.header.headerSize) / entrySize;
+    final int count = (int) Math.min(libHeader.count & 0xFFFFFFFFL, maxCount);
 
-    int[] offsetArray = TableTypeChunkParser.parseTypeOffsetArray(objectInput, tableType, tableTypeIndex);
+    long index = libraryIndex + libHeader.header.headerSize;
+    for (int i = 0; i < count; i++) {
+      final ResTableLibEntry libEntry = objectInput.read(ResTableLibEntry.class, index);
+      visitor.visitLibrary(libEntry.packageId, Formatter.fromUtf16(libEntry.packageName));
+      index += entrySize;
+    }
 
-    System.out.println();
-    System.out.println("offset array:");
-    System.out.println(Arrays.toString(offsetArray));
+    mIndex += libHeader.header.size;
+  }
 
-    final long tableEntryIndex = tableTypeIndex + tableType.entriesStart;
+  private void parseTableTypeType(StructInput objectInput) throws IOException {
+    final long tableTypeIndex = mIndex;
+    final ResTableType tableType = objectInput.read(ResTableType.class, tableTypeIndex);
+    final int typeId = tableType.id & 0xFF;
 
-    for (int i = 0; i < offsetArray.length; i++) {
-      final long entryIndex = offsetArray[i] + tableEntryIndex;
-      final ResTableEntry tableEntry = objectInput.read(ResTableEntry.class, entryIndex);
+    // 被跳过的类型不读取偏移数组。
+    if (skippedTypes[typeId]) {
+      mIndex += tableType.header.size;
+      return;
+    }
 
-      System.out.println();
-      System.out.println("table type type entry " + i + ":");
-      System.out.println("header: " + tableEntry);
-      System.out.println("entry name: " + stringPool[tableEntry.key.index]);
+    final EntryOffsets entryOffsets = TableTypeChunkParser.parseTypeOffsets(objectInput, tableType, tableTypeIndex,
+        specEntryCounts[typeId]);
 
-      if (tableEntry.flags == ResTableEntry.FLAG_COMPLEX) {
-        // parse ResTable_map
-        final ResTableMapEntry tableMapEntry = objectInput.read(ResTableMapEntry.class, entryIndex);
+    // 访问者拒绝的数据块不解码资源项。
+    if (!visitor.visitType(typeId, tableType.config, entryOffsets)) {
+      mIndex += tableType.header.size;
+      return;
+    }
 
-        System.out.println(tableMapEntry);
+    // 整个类型块读取一次，资源项通过可复用的视图读取。
+    final ByteBuffer chunk = objectInput.readBuffer(tableTypeIndex, tableType.header.size);
+    if (!visitor.visitTypeChunk(chunk, tableType.entriesStart)) {
+      mIndex += tableType.header.size;
+      return;
+    }
 
-        int index = 0;
+    final int idPrefix = (packageId & 0xFF) << 24 | typeId << 16;
 
-        for (int j = 0; j < tableMapEntry.count; j++) {
-          final long tableMapIndex = index + entryIndex + tableMapEntry.size;
+    // 按槽位遍历，稀疏数据块只遍历存在的资源项。
+    for (int slot = 0; slot < entryOffsets.slotCount(); slot++) {
+      final int offset = entryOffsets.offsetAt(slot);
+      if (offset == ResTableType.NO_ENTRY) {
+        continue;
+      }
 
-          ResTableMap tableMap = objectInput.read(ResTableMap.class, tableMapIndex);
-          System.out.println("table map " + j + ":");
-          System.out.println(tableMap);
+      final int resId = idPrefix | entryOffsets.indexAt(slot);
+      entryView.moveTo(chunk, tableType.entriesStart + offset);
 
-          index += ObjectInput.sizeOf(ResTableMap.class);
-        }
-      } else {
-        // parse Res_value
-        final int entrySize = ObjectInput.sizeOf(ResTableEntry.class);
-        final ResValue value = objectInput.read(ResValue.class, entryIndex + entrySize);
+      final int keyIndex = entryView.keyIndex();
+      final String key = keyStrings != null && keyIndex >= 0 && keyIndex < keyStrings.length ?
+          keyStrings[keyIndex] : null;
 
-        System.out.println(value);
+      if (!entryView.isComplex()) {
+        valueView.moveTo(chunk, entryView.offset() + entryView.size());
+        visitor.visitEntry(resId, key, entryView, valueView);
+        continue;
+      }
+
+      if (visitor.visitEntry(resId, key, entryView, null)) {
+        int index = entryView.offset() + entryView.size();
+        for (int j = 0; j < entryView.count(); j++) {
+          mapView.moveTo(chunk, index);
+          visitor.visitBagItem(resId, mapView.name(), mapView.value());
+          index += MapView.SIZE;
+        }
       }
     }
 
-    mIndex = objectInput.size();
+    mIndex += tableType.header.size;
   }
 
-  private void parse(ObjectInput objectInput) throws IOException {
-    while (!objectInput.isEof(mIndex)) {
-      ResChunkHeader header = objectInput.read(ResChunkHeader.class, mIndex);
+  /**
+   * 遍历资源表并回调访问者，输入可以是文件，也可以是内存中的数据，例如从 APK 中直接读取的 resources.arsc。
+   *
+   * @param objectInput 资源表输入，由调用方负责关闭。
+   * @param visitor     访问者。
+   * @throws IOException 可能出现的 io 异常。
+   */
+  public void accept(StructInput objectInput, ArscVisitor visitor) throws IOException {
+    this.visitor = visitor;
+    mIndex = 0;
+    packageId = -1;
+    typeStrings = null;
+    keyStrings = null;
 
-      System.out.println();
-      System.out.println("================================ " + ResourceTypes.nameOf(header.type) +
-          " ================================");
-      switch (header.type) {
-        case ResourceTypes.RES_TABLE_TYPE:
-          parseResTableType(objectInput);
-          break;
+    try {
+      // 顶层为资源表数据块。
+      while (!objectInput.isEof(mIndex)) {
+        ResChunkHeader header = readChunkHeader(objectInput, objectInput.size());
 
-        case ResourceTypes.RES_STRING_POOL_TYPE:
-          parseStringPool(objectInput);
-          break;
+        if (header.type == ResourceTypes.RES_TABLE_TYPE) {
+          parseResTableType(objectInput);
+        } else {
+          mIndex += header.size;
+        }
+      }
 
-        case ResourceTypes.RES_TABLE_PACKAGE_TYPE:
-          parseTablePackageType(objectInput);
-          break;
+      visitor.visitEnd();
+    } finally {
+      this.visitor = null;
+    }
+  }
 
-        case ResourceTypes.RES_TABLE_TYPE_SPEC_TYPE:
-          parseTableTypeSpecType(objectInput);
-          break;
+  /**
+   * 解析资源表。
+   *
+   * @param objectInput 资源表输入，由调用方负责关闭。
+   * @return 资源表。
+   * @throws IOException 可能出现的 io 异常。
+   */
+  public ResourceTable parse(StructInput objectInput) throws IOException {
+    return parse(objectInput, false);
+  }
 
-        case ResourceTypes.RES_TABLE_TYPE_TYPE:
-          parseTableTypeType(objectInput);
-          break;
+  /**
+   * 解析资源表，延迟解码时只读取每个类型数据块的偏移数组，资源项在首次访问时解码并缓存，
+   * 打开大资源表的耗时和内存只与实际访问的资源项相关，字符串池仍然在解析时解码。
+   *
+   * @param objectInput 资源表输入，由调用方负责关闭，延迟解码时关闭后仍可访问已读取的数据。
+   * @param lazy        是否延迟解码资源项。
+   * @return 资源表。
+   * @throws IOException 可能出现的 io 异常。
+   */
+  public ResourceTable parse(StructInput objectInput, boolean lazy) throws IOException {
+    final ResourceTableBuilder builder = new ResourceTableBuilder(lazy);
+    accept(objectInput, builder);
+    return builder.table();
+  }
 
-        default:
-      }
-    }
+  /**
+   * 并行解析资源表，分两个阶段：先由当前线程顺序遍历数据块，解码字符串池并记录每个类型数据块的数据和偏移数组，
+   * 再由 pool 并行解码所有资源项。类型数据块相互独立，解码时只读取第一阶段保存的数据，不再访问输入。
+   *
+   * @param objectInput 资源表输入，由调用方负责关闭。
+   * @param pool        解码资源项的线程池。
+   * @return 资源表，返回时所有资源项已解码。
+   * @throws IOException 可能出现的 io 异常。
+   */
+  public ResourceTable parse(StructInput objectInput, ForkJoinPool pool) throws IOException {
+    final ResourceTable table = parse(objectInput, true);
+    pool.invoke(EntryDecodeTask.of(table));
+    return table;
   }
 
   private static void closeQuietly(Closeable closeable) {
@@ -190,14 +348,38 @@ public class ArscParser {
     }
   }
 
-  public void parse(String file) throws IOException{
-    mIndex = 0;
-    stringPool = null;
+  public void accept(String file, ArscVisitor visitor) throws IOException {
+    ObjectInput objectInput = null;
+
+    try {
+      objectInput = new ObjectInput(file, false, true);
+      accept(objectInput, visitor);
+    } finally {
+      closeQuietly(objectInput);
+    }
+  }
+
+  public ResourceTable parse(String file) throws IOException{
+    return parse(file, false);
+  }
+
+  public ResourceTable parse(String file, ForkJoinPool pool) throws IOException {
+    ObjectInput objectInput = null;
+
+    try {
+      objectInput = new ObjectInput(file, false, true);
+      return parse(objectInput, pool);
+    } finally {
+      closeQuietly(objectInput);
+    }
+  }
+
+  public ResourceTable parse(String file, boolean lazy) throws IOException {
     ObjectInput objectInput = null;
 
     try {
-      objectInput = new ObjectInput(file, false);
-      parse(objectInput);
+      objectInput = new ObjectInput(file, false, true);
+      return parse(objectInput, lazy);
     } finally {
       closeQuietly(objectInput);
     }
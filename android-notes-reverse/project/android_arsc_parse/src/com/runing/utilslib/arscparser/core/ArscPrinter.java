@@ -0,0 +1,92 @@
+package com.runing.utilslib.arscparser.core;
+
+import com.runing.utilslib.arscparser.table.ResourceEntry;
+import com.runing.utilslib.arscparser.table.ResourcePackage;
+import com.runing.utilslib.arscparser.table.ResourceTable;
+import com.runing.utilslib.arscparser.table.ResourceType;
+import com.runing.utilslib.arscparser.table.ResourceTypeSpec;
+import com.runing.utilslib.arscparser.table.ResourceValue;
+import com.runing.utilslib.arscparser.type.ResValue;
+
+import java.io.PrintStream;
+
+/**
+ * 资源表打印器，以文本形式输出 {@link ArscParser} 解析得到的 {@link ResourceTable}。
+ */
+public class ArscPrinter {
+
+  private final PrintStream out;
+
+  public ArscPrinter() {
+    this(System.out);
+  }
+
+  public ArscPrinter(PrintStream out) {
+    this.out = out;
+  }
+
+  public void print(ResourceTable table) {
+    out.println("================================ string pool ================================");
+    for (int i = 0; i < table.stringCount(); i++) {
+      out.println(i + " -> " + table.string(i));
+    }
+
+    for (ResourcePackage resourcePackage : table.packages()) {
+      printPackage(table, resourcePackage);
+    }
+  }
+
+  private void printPackage(ResourceTable table, ResourcePackage resourcePackage) {
+    out.println();
+    out.println("================================ package 0x" + Integer.toHexString(resourcePackage.id()) + " " +
+        resourcePackage.name() + " ================================");
+
+    for (int i = 0; i < resourcePackage.libraryCount(); i++) {
+      out.println("library 0x" + Integer.toHexString(resourcePackage.libraryId(i)) + " " +
+          resourcePackage.libraryName(i));
+    }
+
+    for (ResourceTypeSpec typeSpec : resourcePackage.typeSpecs()) {
+      out.println();
+      out.println("type 0x" + Integer.toHexString(typeSpec.id()) + " " + typeSpec.name() +
+          ", entryCount=" + typeSpec.entryCount());
+
+      for (ResourceType type : typeSpec.types()) {
+        out.println("  config: " + type.config());
+
+        for (int i = 0; i < type.entryCount(); i++) {
+          final ResourceEntry entry = type.entry(i);
+          if (entry != null) {
+            printEntry(table, typeSpec, entry);
+          }
+        }
+      }
+    }
+  }
+
+  private void printEntry(ResourceTable table, ResourceTypeSpec typeSpec, ResourceEntry entry) {
+    final String name = "    0x" + Integer.toHexString(entry.id()) + " " + typeSpec.name() + "/" + entry.key();
+
+    if (!entry.isComplex()) {
+      out.println(name + " = " + valueStr(table, entry.id(), entry.value()));
+      return;
+    }
+
+    out.println(name + " (parent=0x" + Integer.toHexString(entry.parent()) + ")");
+    for (int i = 0; i < entry.bagSize(); i++) {
+      out.println("      0x" + Integer.toHexString(entry.bagName(i)) + " = " + valueStr(table, entry.id(), entry.bagValue(i)));
+    }
+  }
+
+  private static String valueStr(ResourceTable table, int resId, ResourceValue value) {
+    if (value.isString() && value.data() >= 0 && value.data() < table.stringCount()) {
+      return value + " \"" + table.string(value.data()) + "\"";
+    }
+
+    // 动态引用同时输出转换后的资源 ID。
+    if (value.dataType() == ResValue.TYPE_DYNAMIC_REFERENCE) {
+      return value + " -> 0x" + Integer.toHexString(table.lookupValue(resId, value).data());
+    }
+    return value.toString();
+  }
+}
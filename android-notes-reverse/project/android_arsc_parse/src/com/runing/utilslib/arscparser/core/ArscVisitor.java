@@ -0,0 +1,136 @@
+package com.runing.utilslib.arscparser.core;
+
+import com.runing.utilslib.arscparser.table.EntryOffsets;
+import com.runing.utilslib.arscparser.type.ResTableConfig;
+import com.runing.utilslib.arscparser.type.ResTableType;
+import com.runing.utilslib.arscparser.view.EntryView;
+import com.runing.utilslib.arscparser.view.ValueView;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 资源表访问者，由 {@link ArscParser#accept} 按文件顺序回调，所有方法默认为空实现，按需覆盖。
+ * <p>
+ * 返回 boolean 的回调返回 false 时，解析器按数据块头部的 size 直接跳过对应内容，不再解码，
+ * 例如只关心 string 类型时，可在 {@link #visitTypeSpec} 中对其它类型返回 false。
+ * <p>
+ * 回调参数中的视图对象只在回调期间有效，解析器会在之后复用它们。
+ */
+public abstract class ArscVisitor {
+
+  /** 全局字符串池 */
+  public static final int POOL_GLOBAL = 0;
+  /** 资源包的类型字符串池 */
+  public static final int POOL_TYPE = 1;
+  /** 资源包的资源项名称字符串池 */
+  public static final int POOL_KEY = 2;
+
+  /**
+   * 访问字符串池。
+   *
+   * @param pool        字符串池类别，{@link #POOL_GLOBAL}、{@link #POOL_TYPE} 或 {@link #POOL_KEY}。
+   * @param stringCount 字符串数量。
+   * @return 是否解码字符串，返回 true 时随后回调 {@link #visitStrings}。
+   */
+  public boolean visitStringPool(int pool, int stringCount) {
+    return true;
+  }
+
+  /**
+   * 访问解码后的字符串池。
+   *
+   * @param pool    字符串池类别。
+   * @param strings 字符串。
+   */
+  public void visitStrings(int pool, String[] strings) {}
+
+  /**
+   * 访问资源包。
+   *
+   * @param id   Package ID。
+   * @param name 包名。
+   * @return 是否访问资源包的内容。
+   */
+  public boolean visitPackage(int id, String name) {
+    return true;
+  }
+
+  /**
+   * 访问类型规范。
+   *
+   * @param typeId    资源 Type ID。
+   * @param name      类型名称，类型字符串池未解码时为 null。
+   * @param specFlags 每个资源项的配置变化掩码。
+   * @return 是否访问该类型在各个配置下的数据块。
+   */
+  public boolean visitTypeSpec(int typeId, String name, int[] specFlags) {
+    return true;
+  }
+
+  /**
+   * 访问某一配置下的类型数据块。
+   *
+   * @param typeId       资源 Type ID。
+   * @param config       配置信息。
+   * @param entryOffsets 资源项相对资源项起始位置的偏移，可能为稠密或稀疏编码，不存在的资源项为
+   *                     {@link ResTableType#NO_ENTRY}。
+   * @return 是否访问数据块中的资源项。
+   */
+  public boolean visitType(int typeId, ResTableConfig config, EntryOffsets entryOffsets) {
+    return true;
+  }
+
+  /**
+   * 访问类型数据块的原始数据，在 {@link #visitType} 返回 true 之后、访问资源项之前回调。
+   * 数据在遍历结束后仍然有效，可以保存下来在之后按偏移数组读取资源项。
+   *
+   * @param chunk        整个类型数据块，位置 0 为数据块头部，不应修改。
+   * @param entriesStart 资源项起始位置相对数据块头部的偏移。
+   * @return 是否逐个访问数据块中的资源项。
+   */
+  public boolean visitTypeChunk(ByteBuffer chunk, int entriesStart) {
+    return true;
+  }
+
+  /**
+   * 访问资源包引用的共享库，每个共享库回调一次。
+   *
+   * @param packageId   共享库编译时分配的 Package ID。
+   * @param packageName 共享库包名。
+   */
+  public void visitLibrary(int packageId, String packageName) {}
+
+  /**
+   * 访问资源项。
+   *
+   * @param resId 资源 ID。
+   * @param key   资源项名称，资源项名称字符串池未解码时为 null。
+   * @param entry 资源项视图。
+   * @param value 简单资源项的值视图，复杂资源项为 null。
+   * @return 复杂资源项是否访问其 bag 项。
+   */
+  public boolean visitEntry(int resId, String key, EntryView entry, ValueView value) {
+    return true;
+  }
+
+  /**
+   * 访问复杂资源项的 bag 项。
+   *
+   * @param resId 所属资源项的资源 ID。
+   * @param name  bag 项名称的资源 ID。
+   * @param value bag 项的值视图。
+   */
+  public void visitBagItem(int resId, int name, ValueView value) {}
+
+  /**
+   * 资源包访问结束，资源包被跳过时不回调。
+   *
+   * @param id Package ID。
+   */
+  public void visitPackageEnd(int id) {}
+
+  /**
+   * 资源表访问结束。
+   */
+  public void visitEnd() {}
+}
@@ -0,0 +1,82 @@
+package com.runing.utilslib.arscparser.core;
+
+import com.runing.utilslib.arscparser.table.ResourcePackage;
+import com.runing.utilslib.arscparser.table.ResourceTable;
+import com.runing.utilslib.arscparser.table.ResourceType;
+import com.runing.utilslib.arscparser.table.ResourceTypeSpec;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * 并行解码延迟资源表中的资源项，所有资源项被分为固定大小的区间，任务按区间二分，直到只剩一个区间。
+ * <p>
+ * 各类型数据块相互独立，解码结果写入各自 {@link ResourceType} 的槽位，不需要同步。
+ */
+final class EntryDecodeTask extends RecursiveAction {
+
+  private static final long serialVersionUID = 1L;
+
+  /** 每个区间的资源项数 */
+  private static final int SLICE_SIZE = 256;
+
+  private final List<ResourceType> types;
+  private final int[] starts;
+  private final int from;
+  private final int to;
+
+  /*
+    types 和 starts 一一对应，表示类型 types[i] 从 starts[i] 开始的一个区间，[from, to) 为本任务负责的区间。
+   */
+  private EntryDecodeTask(List<ResourceType> types, int[] starts, int from, int to) {
+    this.types = types;
+    this.starts = starts;
+    this.from = from;
+    this.to = to;
+  }
+
+  /**
+   * @param table 延迟解码的资源表。
+   * @return 解码表中所有资源项的任务。
+   */
+  static EntryDecodeTask of(ResourceTable table) {
+    final List<ResourceType> types = new ArrayList<>();
+    final List<Integer> starts = new ArrayList<>();
+
+    for (ResourcePackage resourcePackage : table.packages()) {
+      for (ResourceTypeSpec typeSpec : resourcePackage.typeSpecs()) {
+        for (ResourceType type : typeSpec.types()) {
+          for (int start = 0; start < type.entryCount(); start += SLICE_SIZE) {
+            types.add(type);
+            starts.add(start);
+          }
+        }
+      }
+    }
+
+    final int[] startArray = new int[starts.size()];
+    for (int i = 0; i < startArray.length; i++) {
+      startArray[i] = starts.get(i);
+    }
+    return new EntryDecodeTask(types, startArray, 0, startArray.length);
+  }
+
+  @Override
+  protected void compute() {
+    if (to - from > 1) {
+      final int middle = (from + to) >>> 1;
+      invokeAll(new EntryDecodeTask(types, starts, from, middle), new EntryDecodeTask(types, starts, middle, to));
+      return;
+    }
+
+    if (from < to) {
+      final ResourceType type = types.get(from);
+      final int end = Math.min(starts[from] + SLICE_SIZE, type.entryCount());
+      for (int i = starts[from]; i < end; i++) {
+        // 访问即解码并缓存。
+        type.entry(i);
+      }
+    }
+  }
+}
@@ -0,0 +1,213 @@
+package com.runing.utilslib.arscparser.core;
+
+import com.runing.utilslib.arscparser.table.EntryOffsets;
+import com.runing.utilslib.arscparser.table.ResourceEntry;
+import com.runing.utilslib.arscparser.table.ResourcePackage;
+import com.runing.utilslib.arscparser.table.ResourceTable;
+import com.runing.utilslib.arscparser.table.ResourceType;
+import com.runing.utilslib.arscparser.table.ResourceTypeSpec;
+import com.runing.utilslib.arscparser.type.ResTableConfig;
+import com.runing.utilslib.arscparser.view.EntryView;
+import com.runing.utilslib.arscparser.view.MapView;
+import com.runing.utilslib.arscparser.view.ValueView;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 通过访问资源表构建 {@link ResourceTable}。
+ * <p>
+ * 延迟模式下只保存每个类型数据块的数据和偏移数组，资源项在首次访问时才解码。
+ */
+class ResourceTableBuilder extends ArscVisitor {
+
+  private final boolean lazy;
+  private String[] stringPool;
+  private final List<ResourcePackage> packages = new ArrayList<>();
+  private PackageBuilder packageBuilder;
+  private TypeSpecBuilder typeSpecBuilder;
+  private ResourceEntry[] entries;
+  private int typeId;
+  private ResTableConfig config;
+  private EntryOffsets entryOffsets;
+  private ResourceTable table;
+
+  private final MapView mapView = new MapView();
+  private final ValueView valueView = new ValueView();
+
+  /*
+    构建中的资源包。
+   */
+  private static final class PackageBuilder {
+    final int id;
+    final String name;
+    String[] typeStrings = new String[0];
+    String[] keyStrings = new String[0];
+    final List<ResourceTypeSpec> typeSpecs = new ArrayList<>();
+    final List<Integer> libraryIds = new ArrayList<>();
+    final List<String> libraryNames = new ArrayList<>();
+
+    PackageBuilder(int id, String name) {
+      this.id = id;
+      this.name = name;
+    }
+  }
+
+  /*
+    构建中的类型规范。
+   */
+  private static final class TypeSpecBuilder {
+    final int id;
+    final String name;
+    final int[] specFlags;
+    final List<ResourceType> types = new ArrayList<>();
+
+    TypeSpecBuilder(int id, String name, int[] specFlags) {
+      this.id = id;
+      this.name = name;
+      this.specFlags = specFlags;
+    }
+  }
+
+  ResourceTableBuilder(boolean lazy) {
+    this.lazy = lazy;
+  }
+
+  @Override
+  public void visitStrings(int pool, String[] strings) {
+    switch (pool) {
+      case POOL_GLOBAL:
+        stringPool = strings;
+        break;
+
+      case POOL_TYPE:
+        packageBuilder.typeStrings = strings;
+        break;
+
+      case POOL_KEY:
+        packageBuilder.keyStrings = strings;
+        break;
+
+      default:
+    }
+  }
+
+  @Override
+  public boolean visitPackage(int id, String name) {
+    packageBuilder = new PackageBuilder(id, name);
+    return true;
+  }
+
+  @Override
+  public void visitLibrary(int packageId, String packageName) {
+    packageBuilder.libraryIds.add(packageId);
+    packageBuilder.libraryNames.add(packageName);
+  }
+
+  @Override
+  public boolean visitTypeSpec(int typeId, String name, int[] specFlags) {
+    finishTypeSpec();
+    typeSpecBuilder = new TypeSpecBuilder(typeId, name, specFlags);
+    return true;
+  }
+
+  @Override
+  public boolean visitType(int typeId, ResTableConfig config, EntryOffsets entryOffsets) {
+    // 类型数据块跟在同一类型的类型规范之后。
+    if (typeSpecBuilder == null || typeSpecBuilder.id != typeId) {
+      entries = null;
+      return false;
+    }
+
+    if (lazy) {
+      this.typeId = typeId;
+      this.config = config;
+      this.entryOffsets = entryOffsets;
+      return true;
+    }
+
+    entries = new ResourceEntry[entryOffsets.slotCount()];
+    this.entryOffsets = entryOffsets;
+    typeSpecBuilder.types.add(new ResourceType(typeId, config, entryOffsets, entries));
+    return true;
+  }
+
+  @Override
+  public boolean visitTypeChunk(ByteBuffer chunk, int entriesStart) {
+    if (!lazy) {
+      return true;
+    }
+
+    final EntryOffsets offsets = entryOffsets;
+    final int idPrefix = (packageBuilder.id & 0xFF) << 24 | (typeId & 0xFF) << 16;
+    final String[] keyStrings = packageBuilder.keyStrings;
+
+    // 每次解码使用新的视图，可在多个线程中解码同一数据块。
+    typeSpecBuilder.types.add(new ResourceType(typeId, config, offsets, new ResourceType.EntryDecoder() {
+      @Override
+      public ResourceEntry decode(int entryIndex) {
+        final EntryView entryView = new EntryView();
+        entryView.moveTo(chunk, entriesStart + offsets.offset(entryIndex));
+        return TableTypeChunkParser.parseEntry(entryView, new MapView(), new ValueView(), idPrefix | entryIndex,
+            keyStrings);
+      }
+
+      @Override
+      public String key(int entryIndex) {
+        final int keyIndex = new EntryView().moveTo(chunk, entriesStart + offsets.offset(entryIndex)).keyIndex();
+        return keyStrings != null && keyIndex >= 0 && keyIndex < keyStrings.length ? keyStrings[keyIndex] : null;
+      }
+    }));
+
+    config = null;
+    entryOffsets = null;
+    return false;
+  }
+
+  @Override
+  public boolean visitEntry(int resId, String key, EntryView entry, ValueView value) {
+    entries[entryOffsets.slotOf(resId & 0xFFFF)] = TableTypeChunkParser.parseEntry(entry, mapView, valueView, resId,
+        packageBuilder.keyStrings);
+
+    // bag 项已经一并解析。
+    return false;
+  }
+
+  @Override
+  public void visitPackageEnd(int id) {
+    finishPackage();
+  }
+
+  @Override
+  public void visitEnd() {
+    table = new ResourceTable(stringPool != null ? stringPool : new String[0], packages);
+  }
+
+  private void finishTypeSpec() {
+    if (typeSpecBuilder != null) {
+      packageBuilder.typeSpecs.add(new ResourceTypeSpec(typeSpecBuilder.id, typeSpecBuilder.name,
+          typeSpecBuilder.specFlags, typeSpecBuilder.types));
+      typeSpecBuilder = null;
+    }
+  }
+
+  private void finishPackage() {
+    finishTypeSpec();
+    if (packageBuilder != null) {
+      final int[] libraryIds = new int[packageBuilder.libraryIds.size()];
+      for (int i = 0; i < libraryIds.length; i++) {
+        libraryIds[i] = packageBuilder.libraryIds.get(i);
+      }
+
+      packages.add(new ResourcePackage(packageBuilder.id, packageBuilder.name, packageBuilder.typeStrings,
+          packageBuilder.keyStrings, packageBuilder.typeSpecs, libraryIds,
+          packageBuilder.libraryNames.toArray(new String[0])));
+      packageBuilder = null;
+    }
+  }
+
+  ResourceTable table() {
+    return table;
+  }
+}
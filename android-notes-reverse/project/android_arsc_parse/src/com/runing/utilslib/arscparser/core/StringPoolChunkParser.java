@@ -3,8 +3,8 @@ package com.runing.utilslib.arscparser.core;
 import com.runing.utilslib.arscparser.type.ResStringPoolHeader;
 import com.runing.utilslib.arscparser.type.ResStringPoolRef;
 import com.runing.utilslib.arscparser.type.ResStringPoolSpan;
-import com.runing.utilslib.arscparser.util.Formatter;
 import com.runing.utilslib.arscparser.util.objectio.ObjectInput;
+import com.runing.utilslib.arscparser.util.objectio.StructInput;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
@@ -19,7 +19,7 @@ public class StringPoolChunkParser {
   private String[] stringPool;
   private List<ResStringPoolSpan>[] stylePool;
 
-  private ResStringPoolRef[] parseStringIndexArray(ObjectInput objectInput, ResStringPoolHeader header, long index)
+  private ResStringPoolRef[] parseStringIndexArray(StructInput objectInput, ResStringPoolHeader header, long index)
       throws IOException {
     stringIndexArray = new ResStringPoolRef[header.stringCount];
 
@@ -34,7 +34,7 @@ public class StringPoolChunkParser {
     return stringIndexArray;
   }
 
-  private ResStringPoolRef[] parseStyleIndexArray(ObjectInput objectInput, ResStringPoolHeader header, long index)
+  private ResStringPoolRef[] parseStyleIndexArray(StructInput objectInput, ResStringPoolHeader header, long index)
       throws IOException {
     styleIndexArray = new ResStringPoolRef[header.styleCount];
 
@@ -49,41 +49,52 @@ public class StringPoolChunkParser {
     return styleIndexArray;
   }
 
-  private static int parseBytesLength(byte[] b) {
-    return b[1] & 0x7F;
-  }
-
-  private static int parseStringLength(byte[] b) {
-    return b[0] & 0x7F;
-  }
-
-  private String[] parseStringPool(ObjectInput objectInput, ResStringPoolHeader header, long stringPoolIndex)
+  private String[] parseStringPool(StructInput objectInput, ResStringPoolHeader header, long stringPoolIndex)
       throws IOException {
     String[] stringPool = new String[header.stringCount];
+    final boolean utf8 = (header.flags & ResStringPoolHeader.UTF8_FLAG) != 0;
 
     for (int i = 0; i < header.stringCount; i++) {
       final long index = stringPoolIndex + stringIndexArray[i].index;
+      stringPool[i] = utf8 ? parseUtf8String(objectInput, index) : parseUtf16String(objectInput, index);
+    }
 
-      if (header.flags == 0) {
-        final int parseStringLength = parseStringLength(objectInput.readBytes(index, Short.BYTES));
-        final int bytesLength = parseStringLength * 2;
+    return stringPool;
+  }
 
-        stringPool[i] = new String(objectInput.readBytes(index + Short.BYTES, bytesLength), 0,
-                bytesLength, StandardCharsets.UTF_16LE);
-      } else {
-        final int parseBytesLength = parseBytesLength(objectInput.readBytes(index, Short.BYTES));
-        stringPool[i] = new String(objectInput.readBytes(index + Short.BYTES, parseBytesLength), 0,
-                parseBytesLength, StandardCharsets.UTF_8);
-      }
+  /*
+    UTF-16 字符串以 1 或 2 个 uint16 表示字符数，最高位为 1 时使用 2 个。
+   */
+  private static String parseUtf16String(StructInput objectInput, long index) throws IOException {
+    int length = objectInput.readShort(index) & 0xFFFF;
+    index += Short.BYTES;
 
-      String x = stringPool[i];
-      System.out.println(i + " -> " + x);
+    if ((length & 0x8000) != 0) {
+      length = ((length & 0x7FFF) << 16) | (objectInput.readShort(index) & 0xFFFF);
+      index += Short.BYTES;
     }
 
-    return stringPool;
+    return new String(objectInput.readBytes(index, length * 2), StandardCharsets.UTF_16LE);
+  }
+
+  /*
+    UTF-8 字符串依次以 1 或 2 个 uint8 表示字符数和字节数，最高位为 1 时使用 2 个。
+   */
+  private static String parseUtf8String(StructInput objectInput, long index) throws IOException {
+    // 跳过字符数。
+    if ((objectInput.readByte(index++) & 0x80) != 0) {
+      index++;
+    }
+
+    int length = objectInput.readByte(index++) & 0xFF;
+    if ((length & 0x80) != 0) {
+      length = ((length & 0x7F) << 8) | (objectInput.readByte(index++) & 0xFF);
+    }
+
+    return new String(objectInput.readBytes(index, length), StandardCharsets.UTF_8);
   }
 
-  private List<ResStringPoolSpan>[] parseStylePool(ObjectInput objectInput, ResStringPoolHeader header, long stylePoolIndex)
+  private List<ResStringPoolSpan>[] parseStylePool(StructInput objectInput, ResStringPoolHeader header, long stylePoolIndex)
       throws IOException {
     @SuppressWarnings("unchecked")
     List<ResStringPoolSpan>[] stylePool = new List[header.styleCount];
@@ -108,7 +119,7 @@ public class StringPoolChunkParser {
     return stylePool;
   }
 
-  public void parseStringPoolChunk(ObjectInput objectInput, ResStringPoolHeader header, long stringPoolHeaderIndex)
+  public void parseStringPoolChunk(StructInput objectInput, ResStringPoolHeader header, long stringPoolHeaderIndex)
       throws IOException {
     // parse string index array.
     final long stringIndexArrayIndex = stringPoolHeaderIndex + ObjectInput.sizeOf(ResStringPoolHeader.class);
@@ -1,36 +1,85 @@
 package com.runing.utilslib.arscparser.core;
 
+import com.runing.utilslib.arscparser.table.EntryOffsets;
+import com.runing.utilslib.arscparser.table.ResourceEntry;
+import com.runing.utilslib.arscparser.table.ResourceValue;
 import com.runing.utilslib.arscparser.type.ResTableType;
 import com.runing.utilslib.arscparser.type.ResTableTypeSpec;
-import com.runing.utilslib.arscparser.util.objectio.ObjectInput;
+import com.runing.utilslib.arscparser.util.objectio.StructInput;
+import com.runing.utilslib.arscparser.view.EntryView;
+import com.runing.utilslib.arscparser.view.MapView;
+import com.runing.utilslib.arscparser.view.ValueView;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 
 public class TableTypeChunkParser {
 
-  @SuppressWarnings("Duplicates")
-  public static int[] parseSpecEntryArray(ObjectInput objectInput, ResTableTypeSpec tableTypeSpec, long typeSpecIndex)
+  public static int[] parseSpecEntryArray(StructInput objectInput, ResTableTypeSpec tableTypeSpec, long typeSpecIndex)
       throws IOException {
-    int[] entryArray = new int[tableTypeSpec.entryCount];
-    long index = typeSpecIndex + tableTypeSpec.header.headerSize;
+    final long index = typeSpecIndex + tableTypeSpec.header.headerSize;
+    return objectInput.readIntArray(index, tableTypeSpec.entryCount);
+  }
+
+  /**
+   * 读取类型数据块的偏移数组，按 {@link ResTableType#flags} 区分稠密 32 位、稠密 16 位和稀疏编码。
+   *
+   * @param specEntryCount 类型规范中的资源项个数，稀疏编码时作为资源项个数，未知时传 -1。
+   */
+  public static EntryOffsets parseTypeOffsets(StructInput objectInput, ResTableType tableType, long typeIndex,
+                                              int specEntryCount) throws IOException {
+    final long index = typeIndex + tableType.header.headerSize;
+
+    if ((tableType.flags & ResTableType.FLAG_SPARSE) != 0) {
+      // (索引, 偏移 / 4) 对交错排列。
+      final short[] pairs = objectInput.readShortArray(index, tableType.entryCount * 2);
+      final short[] indices = new short[tableType.entryCount];
+      final short[] offsets = new short[tableType.entryCount];
+      for (int i = 0; i < tableType.entryCount; i++) {
+        indices[i] = pairs[i * 2];
+        offsets[i] = pairs[i * 2 + 1];
+      }
 
-    for (int i = 0; i < entryArray.length; i++) {
-      entryArray[i] = objectInput.readInt(index);
-      index += Integer.BYTES;
+      final int entryCount = specEntryCount >= 0 ? specEntryCount :
+          indices.length == 0 ? 0 : (indices[indices.length - 1] & 0xFFFF) + 1;
+      return EntryOffsets.sparse(entryCount, indices, offsets);
     }
-    return entryArray;
+
+    if ((tableType.flags & ResTableType.FLAG_OFFSET16) != 0) {
+      return EntryOffsets.dense16(objectInput.readShortArray(index, tableType.entryCount));
+    }
+
+    return EntryOffsets.dense(objectInput.readIntArray(index, tableType.entryCount));
   }
 
-  @SuppressWarnings("Duplicates")
-  public static int[] parseTypeOffsetArray(ObjectInput objectInput, ResTableType tableType, long typeIndex)
-      throws IOException {
-    int[] entryArray = new int[tableType.entryCount];
-    long index = typeIndex + tableType.header.headerSize;
+  /**
+   * 解析视图所在位置的资源项，mapView 和 valueView 仅作为临时视图使用。
+   */
+  public static ResourceEntry parseEntry(EntryView entryView, MapView mapView, ValueView valueView, int resId,
+                                         String[] keyStrings) {
+    final ByteBuffer chunk = entryView.buffer();
+    final int keyIndex = entryView.keyIndex();
+    final String key = keyStrings != null && keyIndex >= 0 && keyIndex < keyStrings.length ?
+        keyStrings[keyIndex] : null;
 
-    for (int i = 0; i < entryArray.length; i++) {
-      entryArray[i] = objectInput.readInt(index);
-      index += Integer.BYTES;
+    if (!entryView.isComplex()) {
+      valueView.moveTo(chunk, entryView.offset() + entryView.size());
+      return new ResourceEntry(resId, entryView.flags(), key,
+          new ResourceValue(valueView.dataType(), valueView.data()));
     }
-    return entryArray;
+
+    final int count = entryView.count();
+    final int[] bagNames = new int[count];
+    final ResourceValue[] bagValues = new ResourceValue[count];
+
+    int index = entryView.offset() + entryView.size();
+    for (int j = 0; j < count; j++) {
+      mapView.moveTo(chunk, index);
+      bagNames[j] = mapView.name();
+      bagValues[j] = new ResourceValue(mapView.dataType(), mapView.data());
+      index += MapView.SIZE;
+    }
+
+    return new ResourceEntry(resId, entryView.flags(), key, entryView.parent(), bagNames, bagValues);
   }
 }
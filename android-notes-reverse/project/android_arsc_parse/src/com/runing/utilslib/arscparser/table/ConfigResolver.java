@@ -0,0 +1,443 @@
+package com.runing.utilslib.arscparser.table;
+
+import com.runing.utilslib.arscparser.type.ResTableTypeSpec;
+import com.runing.utilslib.arscparser.type.ResValue;
+
+import java.util.Arrays;
+
+/**
+ * 针对一个目标设备配置选择资源项的最佳配置，由 {@link ResourceTable#resolver(ResourceConfig)} 创建。
+ * <p>
+ * 每个类型首次访问时筛选出与设备匹配的配置，每个资源项的选择结果按 (typeId, entryIndex) 缓存，
+ * 之后的查找只有数组访问。可被多个线程共享，并发时结果可能被重复计算，但不会出错。
+ * <p>
+ * 类型规范中每个资源项的配置变化掩码用于剪枝：掩码为 0 的资源项不随配置变化，默认配置中存在时直接返回默认配置；
+ * 其它资源项比较配置时只比较掩码中的维度，例如只随密度变化的资源项不比较语言。
+ */
+public final class ConfigResolver {
+
+  /** 资源项在所有配置中都不存在或不匹配 */
+  private static final int NOT_FOUND = -1;
+  /** 父 bag 链的最大长度（含自身），超过时解析失败 */
+  private static final int MAX_PARENT_DEPTH = 64;
+  /** bag 缓存中表示父 bag 链存在循环，链上以及通向循环的 bag 都解析失败 */
+  private static final ResourceBag CYCLIC_BAG = new ResourceBag(0, 0, 0, new int[0], new long[0]);
+  /** 表示父 bag 链过长，不缓存 */
+  private static final ResourceBag TOO_DEEP_BAG = new ResourceBag(0, 0, 0, new int[0], new long[0]);
+  /** 最多跟随的引用次数，与 AOSP 解析引用时的最大迭代次数相同 */
+  private static final int MAX_REFERENCE_DEPTH = 20;
+  /** 值缓存中表示已解析的标志位，低 40 位为 {@link ResourceBag#pack(byte, int)} 打包的值 */
+  private static final long RESOLVED = 1L << 40;
+  /** 值缓存中 48 位起保存从该资源项到最终值跟随的引用次数 */
+  private static final int DEPTH_SHIFT = 48;
+  private static final long VALUE_MASK = (1L << 40) - 1;
+  /** 值缓存中表示引用链存在循环或过长 */
+  private static final long UNRESOLVABLE = -1L;
+
+  private final ResourceTable table;
+  private final ResourceConfig device;
+  /** 按 Package ID、Type ID 索引的类型缓存 */
+  private final TypeCache[][] typeCaches = new TypeCache[256][];
+
+  /*
+    一个类型在目标设备下的缓存。
+   */
+  private static final class TypeCache {
+    /** 与设备匹配的配置索引，按文件中的顺序排列 */
+    final int[] candidates;
+    /** 默认配置的索引，没有默认配置时为 -1 */
+    final int defaultIndex;
+    /** 每个资源项的最佳配置索引 + 1，0 表示尚未计算，{@link #NOT_FOUND} 表示没有匹配的配置 */
+    final int[] best;
+    /** 每个资源项合并父 bag 后的 bag，首次解析 bag 时创建 */
+    ResourceBag[] bags;
+    /** 每个资源项沿引用链解析后的值，0 表示尚未计算，首次解析值时创建 */
+    long[] values;
+
+    TypeCache(int[] candidates, int defaultIndex, int entryCount) {
+      this.candidates = candidates;
+      this.defaultIndex = defaultIndex;
+      this.best = new int[entryCount];
+    }
+  }
+
+  ConfigResolver(ResourceTable table, ResourceConfig device) {
+    this.table = table;
+    this.device = device;
+  }
+
+  /** 目标设备配置 */
+  public ResourceConfig device() {
+    return device;
+  }
+
+  /**
+   * @param resId 资源 ID，0xPPTTEEEE。
+   * @return 最佳配置的索引，即类型数据块在 {@link ResourceTypeSpec#types()} 中的位置，没有匹配的配置时返回 -1。
+   */
+  public int configIndex(int resId) {
+    final ResourceTypeSpec typeSpec = table.getTypeSpec(resId);
+    if (typeSpec == null) {
+      return -1;
+    }
+
+    final int entryIndex = resId & 0xFFFF;
+    if (entryIndex >= typeSpec.entryCount()) {
+      return -1;
+    }
+
+    final TypeCache cache = typeCache(resId >>> 24, typeSpec);
+    final int configChanges = typeSpec.specFlags(entryIndex) & ~ResTableTypeSpec.SPEC_PUBLIC;
+
+    // 不随配置变化的资源项只存在于一个配置中，默认配置总是匹配。
+    if (configChanges == 0 && cache.defaultIndex >= 0 && typeSpec.type(cache.defaultIndex).hasEntry(entryIndex)) {
+      return cache.defaultIndex;
+    }
+
+    int best = cache.best[entryIndex];
+    if (best == 0) {
+      final int selected = selectBest(typeSpec, cache.candidates, entryIndex, configChanges);
+      best = selected < 0 ? NOT_FOUND : selected + 1;
+      cache.best[entryIndex] = best;
+    }
+    return best == NOT_FOUND ? -1 : best - 1;
+  }
+
+  /**
+   * @param resId 资源 ID，0xPPTTEEEE。
+   * @return 最佳配置下的资源项，不存在时返回 null。
+   */
+  public ResourceEntry get(int resId) {
+    final int configIndex = configIndex(resId);
+    return configIndex < 0 ? null : table.get(resId, configIndex);
+  }
+
+  /**
+   * 解析 bag，沿父 bag 链合并 bag 项，子 bag 覆盖父 bag 中的同名项，每一级都使用目标设备下的最佳配置。
+   * 结果按资源项缓存，父 bag 的结果也会被缓存并被共享同一父 bag 的其它 bag 复用。
+   * <p>
+   * 与 AOSP 相同，正在合并的 bag 再次出现在父 bag 链上视为错误：链上以及通向循环的 bag 都返回 null，
+   * 结果与解析的先后顺序无关。父 bag 链超过 64 级时同样返回 null，且不缓存。
+   *
+   * @param resId 资源 ID，0xPPTTEEEE。
+   * @return 合并后的 bag，资源项不存在、不是 bag、父 bag 链存在循环或过长时返回 null。
+   */
+  public ResourceBag resolveBag(int resId) {
+    final ResourceBag bag = resolveBag(resId, new int[MAX_PARENT_DEPTH], 0);
+    return bag == CYCLIC_BAG || bag == TOO_DEEP_BAG ? null : bag;
+  }
+
+  /*
+    chain 中是正在合并的 bag，depth 为其个数。
+   */
+  private ResourceBag resolveBag(int resId, int[] chain, int depth) {
+    final ResourceTypeSpec typeSpec = table.getTypeSpec(resId);
+    final int entryIndex = resId & 0xFFFF;
+    if (typeSpec == null || entryIndex >= typeSpec.entryCount()) {
+      return null;
+    }
+
+    final TypeCache cache = typeCache(resId >>> 24, typeSpec);
+    ResourceBag[] bags = cache.bags;
+    if (bags == null) {
+      bags = new ResourceBag[typeSpec.entryCount()];
+      cache.bags = bags;
+    }
+
+    ResourceBag bag = bags[entryIndex];
+    if (bag != null) {
+      // 已缓存的 bag 也计入链长，结果与解析的先后顺序无关。
+      return bag != CYCLIC_BAG && depth + bag.parentDepth() >= MAX_PARENT_DEPTH ? TOO_DEEP_BAG : bag;
+    }
+
+    final ResourceEntry entry = get(resId);
+    if (entry == null || !entry.isComplex()) {
+      return null;
+    }
+
+    // 正在合并的 bag 不会写入缓存，在链上再次出现说明存在循环，由链上的调用写入缓存。
+    if (indexOf(chain, depth, resId) >= 0) {
+      return CYCLIC_BAG;
+    }
+    if (depth == MAX_PARENT_DEPTH) {
+      return TOO_DEEP_BAG;
+    }
+    chain[depth] = resId;
+
+    final int parent = table.lookupResourceId(resId, entry.parent());
+    final ResourceBag parentBag = parent != 0 ? resolveBag(parent, chain, depth + 1) : null;
+    if (parentBag == CYCLIC_BAG) {
+      bags[entryIndex] = CYCLIC_BAG;
+      return CYCLIC_BAG;
+    }
+    if (parentBag == TOO_DEEP_BAG) {
+      return TOO_DEEP_BAG;
+    }
+
+    bag = merge(entry, parent, parentBag);
+    bags[entryIndex] = bag;
+    return bag;
+  }
+
+  /*
+    将资源项的 bag 项按名称排序后与已合并的父 bag 归并，同名时使用子 bag 的值。
+   */
+  private ResourceBag merge(ResourceEntry entry, int parent, ResourceBag parentBag) {
+    final int resId = entry.id();
+    int size = entry.bagSize();
+    int[] names = new int[size];
+    long[] values = new long[size];
+
+    boolean sorted = true;
+    for (int i = 0; i < size; i++) {
+      names[i] = table.lookupResourceId(resId, entry.bagName(i));
+      final ResourceValue value = table.lookupValue(resId, entry.bagValue(i));
+      values[i] = ResourceBag.pack(value.dataType(), value.data());
+      sorted &= i == 0 || Integer.compareUnsigned(names[i - 1], names[i]) < 0;
+    }
+
+    // aapt 写入时已按名称排序，未排序时才排序。
+    if (!sorted) {
+      size = sortByName(names, values);
+      names = Arrays.copyOf(names, size);
+      values = Arrays.copyOf(values, size);
+    }
+
+    if (parentBag == null) {
+      return new ResourceBag(resId, parent, 0, names, values);
+    }
+
+    final int parentSize = parentBag.size();
+    final int[] mergedNames = new int[size + parentSize];
+    final long[] mergedValues = new long[size + parentSize];
+    int i = 0;
+    int j = 0;
+    int count = 0;
+    while (i < size || j < parentSize) {
+      final int compare = i == size ? 1 : j == parentSize ? -1 :
+          Integer.compareUnsigned(names[i], parentBag.name(j));
+
+      if (compare <= 0) {
+        mergedNames[count] = names[i];
+        mergedValues[count++] = values[i++];
+        // 同名项跳过父 bag 中的值。
+        if (compare == 0) {
+          j++;
+        }
+      } else {
+        mergedNames[count] = parentBag.name(j);
+        mergedValues[count++] = parentBag.packedValue(j++);
+      }
+    }
+
+    return new ResourceBag(resId, parent, parentBag.parentDepth() + 1,
+        count == mergedNames.length ? mergedNames : Arrays.copyOf(mergedNames, count),
+        count == mergedValues.length ? mergedValues : Arrays.copyOf(mergedValues, count));
+  }
+
+  /*
+    插入排序，bag 项通常很少，排序后同名项只保留最后一个，返回剩余的项数。
+   */
+  private static int sortByName(int[] names, long[] values) {
+    for (int i = 1; i < names.length; i++) {
+      final int name = names[i];
+      final long value = values[i];
+      int j = i - 1;
+      while (j >= 0 && Integer.compareUnsigned(names[j], name) > 0) {
+        names[j + 1] = names[j];
+        values[j + 1] = values[j];
+        j--;
+      }
+      names[j + 1] = name;
+      values[j + 1] = value;
+    }
+
+    int count = 0;
+    for (int i = 0; i < names.length; i++) {
+      if (count > 0 && names[count - 1] == names[i]) {
+        values[count - 1] = values[i];
+      } else {
+        names[count] = names[i];
+        values[count++] = values[i];
+      }
+    }
+    return count;
+  }
+
+  /**
+   * 沿引用链解析资源值，直到值不是 {@link ResValue#TYPE_REFERENCE}，动态引用先转换为实际的资源 ID，
+   * 每一级都使用目标设备下的最佳配置。
+   * 引用的资源项不存在（例如其它资源表中的资源）或是 bag 时，返回指向它的引用。
+   * <p>
+   * 结果按资源项以打包的 long 缓存，引用链上的每个资源项都会缓存同一结果，之后别名的查找只有数组访问。
+   *
+   * @param resId 资源 ID，0xPPTTEEEE。
+   * @return 最终的值，资源项不存在、没有匹配的配置、是 bag、引用链存在循环或跟随的引用超过 20 次时返回 null。
+   */
+  public ResourceValue resolveValue(int resId) {
+    final long packed = resolvePackedValue(resId);
+    return packed == UNRESOLVABLE ? null : new ResourceValue((byte) (packed >>> 32), (int) packed);
+  }
+
+  /*
+    缓存的结果中记录从该资源项到最终值跟随的引用次数，命中缓存时加上已经跟随的次数再检查上限，
+    因此结果与之前解析过哪些资源项无关。
+   */
+  private long resolvePackedValue(int resId) {
+    final long[] cache = valueCache(resId);
+    final long first = cache != null ? cache[resId & 0xFFFF] : 0;
+    if (first != 0) {
+      return first == UNRESOLVABLE ? UNRESOLVABLE : first & VALUE_MASK;
+    }
+
+    final int[] chain = new int[MAX_REFERENCE_DEPTH + 1];
+    int length = 0;
+    int current = resId;
+    long result;
+    // 链上最后一个资源项到最终值跟随的引用次数。
+    int tailDepth = 0;
+    // 引用次数超过上限时停止，此时只能确定起点失败。
+    boolean tooDeep = false;
+
+    while (true) {
+      final long[] values = valueCache(current);
+      final long cached = values != null ? values[current & 0xFFFF] : 0;
+      if (cached != 0) {
+        // 命中缓存的资源项本身是上一个资源项跟随的一次引用。
+        result = cached == UNRESOLVABLE ? UNRESOLVABLE : cached & VALUE_MASK;
+        tailDepth = cached == UNRESOLVABLE ? 0 : (int) (cached >>> DEPTH_SHIFT) + 1;
+        break;
+      }
+
+      final ResourceEntry entry = get(current);
+      if (entry == null || entry.isComplex()) {
+        // 最终值是链上最后一个资源项中指向它的引用。
+        result = length == 0 ? UNRESOLVABLE : RESOLVED | ResourceBag.pack((byte) ResValue.TYPE_REFERENCE, current);
+        break;
+      }
+
+      if (indexOf(chain, length, current) >= 0) {
+        result = UNRESOLVABLE;
+        break;
+      }
+      if (length == chain.length) {
+        result = UNRESOLVABLE;
+        tooDeep = true;
+        break;
+      }
+      chain[length++] = current;
+
+      final ResourceValue value = table.lookupValue(current, entry.value());
+      if (value.dataType() != ResValue.TYPE_REFERENCE || value.data() == 0) {
+        result = RESOLVED | ResourceBag.pack(value.dataType(), value.data());
+        break;
+      }
+      current = value.data();
+    }
+
+    if (tooDeep) {
+      // 后面的资源项从自身开始可能可以解析，只缓存起点。
+      cache[resId & 0xFFFF] = UNRESOLVABLE;
+      return UNRESOLVABLE;
+    }
+
+    if (length == 0) {
+      return result;
+    }
+
+    for (int i = length - 1; i >= 0; i--) {
+      final int depth = length - 1 - i + tailDepth;
+      valueCache(chain[i])[chain[i] & 0xFFFF] = result == UNRESOLVABLE || depth > MAX_REFERENCE_DEPTH ?
+          UNRESOLVABLE : result | (long) depth << DEPTH_SHIFT;
+    }
+    return tailDepth + length - 1 > MAX_REFERENCE_DEPTH ? UNRESOLVABLE : result;
+  }
+
+  private static int indexOf(int[] chain, int length, int resId) {
+    for (int i = 0; i < length; i++) {
+      if (chain[i] == resId) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /*
+    资源项所在类型的值缓存，类型不存在或资源项索引超出范围时返回 null。
+   */
+  private long[] valueCache(int resId) {
+    final ResourceTypeSpec typeSpec = table.getTypeSpec(resId);
+    if (typeSpec == null || (resId & 0xFFFF) >= typeSpec.entryCount()) {
+      return null;
+    }
+
+    final TypeCache cache = typeCache(resId >>> 24, typeSpec);
+    long[] values = cache.values;
+    if (values == null) {
+      values = new long[typeSpec.entryCount()];
+      cache.values = values;
+    }
+    return values;
+  }
+
+  private TypeCache typeCache(int packageId, ResourceTypeSpec typeSpec) {
+    TypeCache[] packageCaches = typeCaches[packageId];
+    if (packageCaches == null) {
+      packageCaches = new TypeCache[256];
+      typeCaches[packageId] = packageCaches;
+    }
+
+    final int typeId = typeSpec.id() & 0xFF;
+    TypeCache cache = packageCaches[typeId];
+    if (cache == null) {
+      cache = new TypeCache(matchingConfigs(typeSpec), defaultConfig(typeSpec), typeSpec.entryCount());
+      packageCaches[typeId] = cache;
+    }
+    return cache;
+  }
+
+  private int[] matchingConfigs(ResourceTypeSpec typeSpec) {
+    final int[] candidates = new int[typeSpec.typeCount()];
+    int count = 0;
+    for (int i = 0; i < typeSpec.typeCount(); i++) {
+      if (typeSpec.type(i).resourceConfig().match(device)) {
+        candidates[count++] = i;
+      }
+    }
+
+    final int[] result = new int[count];
+    System.arraycopy(candidates, 0, result, 0, count);
+    return result;
+  }
+
+  private static int defaultConfig(ResourceTypeSpec typeSpec) {
+    for (int i = 0; i < typeSpec.typeCount(); i++) {
+      if (ResourceConfig.DEFAULT.equals(typeSpec.type(i).resourceConfig())) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /*
+    在包含该资源项的匹配配置中选择最合适的，与 AOSP 相同，依次与当前最佳配置比较，只比较掩码中的维度。
+   */
+  private int selectBest(ResourceTypeSpec typeSpec, int[] candidates, int entryIndex, int configChanges) {
+    int best = -1;
+    ResourceConfig bestConfig = null;
+
+    for (int candidate : candidates) {
+      final ResourceType type = typeSpec.type(candidate);
+      if (!type.hasEntry(entryIndex)) {
+        continue;
+      }
+
+      final ResourceConfig config = type.resourceConfig();
+      if (bestConfig == null || config.isBetterThan(bestConfig, device, configChanges)) {
+        best = candidate;
+        bestConfig = config;
+      }
+    }
+    return best;
+  }
+}
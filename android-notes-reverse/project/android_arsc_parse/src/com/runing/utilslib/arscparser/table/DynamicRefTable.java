@@ -0,0 +1,87 @@
+package com.runing.utilslib.arscparser.table;
+
+import com.runing.utilslib.arscparser.type.ResValue;
+
+/**
+ * 资源包的动态引用表，将编译时的 Package ID 转换为资源表中实际的 Package ID，规则与 AOSP DynamicRefTable 相同。
+ * <p>
+ * 共享库编译时不确定自身和所依赖共享库的 Package ID，引用保存为 {@link ResValue#TYPE_DYNAMIC_REFERENCE}，
+ * Package ID 为 0 表示共享库自身，其它值按共享库数据块记录的包名查找资源表中同名的资源包。
+ * 转换表在创建资源表时计算，转换只有一次数组访问。
+ */
+public final class DynamicRefTable {
+
+  /** 系统资源包 */
+  private static final int SYS_PACKAGE_ID = 0x01;
+  /** 应用资源包 */
+  private static final int APP_PACKAGE_ID = 0x7F;
+
+  /** 资源包在资源表中的 Package ID */
+  private final int assignedPackageId;
+  /** 按编译时 Package ID 索引的实际 Package ID，0 表示未知 */
+  private final byte[] lookupTable = new byte[256];
+
+  /**
+   * @param resourcePackage 资源包。
+   * @param table           资源包所在的资源表，用于按包名查找共享库。
+   */
+  DynamicRefTable(ResourcePackage resourcePackage, ResourceTable table) {
+    assignedPackageId = resourcePackage.id() & 0xFF;
+    lookupTable[SYS_PACKAGE_ID] = SYS_PACKAGE_ID;
+    lookupTable[APP_PACKAGE_ID] = (byte) APP_PACKAGE_ID;
+
+    for (int i = 0; i < resourcePackage.libraryCount(); i++) {
+      final int buildPackageId = resourcePackage.libraryId(i) & 0xFF;
+      final ResourcePackage library = findPackage(table, resourcePackage.libraryName(i));
+
+      // 资源表中没有该共享库时不建立映射，引用无法转换。
+      if (library != null) {
+        lookupTable[buildPackageId] = (byte) library.id();
+      }
+    }
+  }
+
+  private static ResourcePackage findPackage(ResourceTable table, String name) {
+    for (ResourcePackage resourcePackage : table.packages()) {
+      if (resourcePackage.name() != null && resourcePackage.name().equals(name)) {
+        return resourcePackage;
+      }
+    }
+    return null;
+  }
+
+  /** 资源包在资源表中的 Package ID */
+  public int assignedPackageId() {
+    return assignedPackageId;
+  }
+
+  /**
+   * @param resId 编译时的资源 ID。
+   * @return 实际的资源 ID，Package ID 未知或共享库不在资源表中时返回 0。
+   */
+  public int lookupResourceId(int resId) {
+    final int packageId = resId >>> 24;
+    if (resId == 0 || packageId == APP_PACKAGE_ID) {
+      return resId;
+    }
+
+    // Package ID 为 0 表示共享库访问自身的资源。
+    if (packageId == 0) {
+      return (resId & 0xFFFFFF) | assignedPackageId << 24;
+    }
+
+    final int translated = lookupTable[packageId] & 0xFF;
+    return translated == 0 ? 0 : (resId & 0xFFFFFF) | translated << 24;
+  }
+
+  /**
+   * @param value 资源值。
+   * @return 动态引用转换为 {@link ResValue#TYPE_REFERENCE} 后的值，其它类型的值原样返回。
+   */
+  public ResourceValue lookupValue(ResourceValue value) {
+    if (value == null || value.dataType() != ResValue.TYPE_DYNAMIC_REFERENCE) {
+      return value;
+    }
+    return new ResourceValue((byte) ResValue.TYPE_REFERENCE, lookupResourceId(value.data()));
+  }
+}
@@ -0,0 +1,156 @@
+package com.runing.utilslib.arscparser.table;
+
+import com.runing.utilslib.arscparser.type.ResTableType;
+
+/**
+ * 类型数据块的资源项偏移数组，支持 {@link ResTableType} 的三种编码，按文件中的编码保存，不展开：
+ * <ul>
+ * <li>稠密 32 位：每个资源项一个 uint32_t 偏移，不存在的资源项为 {@link ResTableType#NO_ENTRY}；</li>
+ * <li>稠密 16 位（{@link ResTableType#FLAG_OFFSET16}）：每个资源项一个 uint16_t，值为偏移 / 4，0xFFFF 表示不存在；</li>
+ * <li>稀疏（{@link ResTableType#FLAG_SPARSE}）：只保存存在的资源项，(索引, 偏移 / 4) 按索引升序排列，查找时二分。</li>
+ * </ul>
+ * 存在的资源项按槽位编号，稠密编码的槽位就是资源项索引，稀疏编码的槽位是资源项在数组中的位置。
+ */
+public final class EntryOffsets {
+
+  /** 16 位偏移中表示资源项不存在的值 */
+  private static final int NO_ENTRY16 = 0xFFFF;
+
+  /** 资源项个数，稀疏编码时来自类型规范 */
+  private final int entryCount;
+  /** 32 位偏移，稠密编码时按资源项索引排列，稀疏编码时按槽位排列，16 位编码时为 null */
+  private final int[] offsets;
+  /** 16 位偏移，值为偏移 / 4，32 位编码时为 null */
+  private final short[] offsets16;
+  /** 稀疏编码的资源项索引，升序，其它编码时为 null */
+  private final short[] indices;
+
+  private EntryOffsets(int entryCount, int[] offsets, short[] offsets16, short[] indices) {
+    this.entryCount = entryCount;
+    this.offsets = offsets;
+    this.offsets16 = offsets16;
+    this.indices = indices;
+  }
+
+  /**
+   * @param offsets 每个资源项的偏移，不存在的资源项为 {@link ResTableType#NO_ENTRY}，数组由本对象持有。
+   */
+  public static EntryOffsets dense(int[] offsets) {
+    return new EntryOffsets(offsets.length, offsets, null, null);
+  }
+
+  /**
+   * @param offsets16 每个资源项的偏移 / 4，0xFFFF 表示不存在，数组由本对象持有。
+   */
+  public static EntryOffsets dense16(short[] offsets16) {
+    return new EntryOffsets(offsets16.length, null, offsets16, null);
+  }
+
+  /**
+   * @param entryCount 资源项个数，即类型规范中的资源项个数。
+   * @param indices    存在的资源项索引，升序，数组由本对象持有。
+   * @param offsets16  对应资源项的偏移 / 4，数组由本对象持有。
+   */
+  public static EntryOffsets sparse(int entryCount, short[] indices, short[] offsets16) {
+    checkSparse(entryCount, indices, offsets16.length);
+    return new EntryOffsets(entryCount, null, offsets16, indices);
+  }
+
+  /**
+   * 偏移为 32 位的稀疏编码，用于资源表快照。
+   *
+   * @param entryCount 资源项个数，即类型规范中的资源项个数。
+   * @param indices    存在的资源项索引，升序，数组由本对象持有。
+   * @param offsets    对应资源项的偏移，数组由本对象持有。
+   */
+  public static EntryOffsets sparse(int entryCount, short[] indices, int[] offsets) {
+    checkSparse(entryCount, indices, offsets.length);
+    return new EntryOffsets(entryCount, offsets, null, indices);
+  }
+
+  private static void checkSparse(int entryCount, short[] indices, int offsetCount) {
+    if (indices.length != offsetCount) {
+      throw new IllegalArgumentException("indices length " + indices.length + " != offsets length " + offsetCount);
+    }
+
+    for (int i = 0; i < indices.length; i++) {
+      final int index = indices[i] & 0xFFFF;
+      if (index >= entryCount || i > 0 && index <= (indices[i - 1] & 0xFFFF)) {
+        throw new IllegalArgumentException("bad sparse entry index " + index + " at " + i);
+      }
+    }
+  }
+
+  /** 资源项个数，包括不存在的资源项 */
+  public int entryCount() {
+    return entryCount;
+  }
+
+  /** 是否为稀疏编码 */
+  public boolean isSparse() {
+    return indices != null;
+  }
+
+  /** 槽位个数，稠密编码时等于资源项个数，稀疏编码时为存在的资源项个数 */
+  public int slotCount() {
+    return indices != null ? indices.length : entryCount;
+  }
+
+  /**
+   * @param slot 槽位。
+   * @return 槽位对应的资源项索引。
+   */
+  public int indexAt(int slot) {
+    return indices != null ? indices[slot] & 0xFFFF : slot;
+  }
+
+  /**
+   * @param slot 槽位。
+   * @return 槽位对应资源项相对资源项起始位置的偏移，不存在时为 {@link ResTableType#NO_ENTRY}。
+   */
+  public int offsetAt(int slot) {
+    if (offsets != null) {
+      return offsets[slot];
+    }
+
+    final int offset16 = offsets16[slot] & 0xFFFF;
+    return indices == null && offset16 == NO_ENTRY16 ? ResTableType.NO_ENTRY : offset16 << 2;
+  }
+
+  /**
+   * @param entryIndex 资源项索引。
+   * @return 资源项所在的槽位，不存在时返回 -1，稀疏编码时二分查找。
+   */
+  public int slotOf(int entryIndex) {
+    if (entryIndex < 0 || entryIndex >= entryCount) {
+      return -1;
+    }
+
+    if (indices == null) {
+      return offsetAt(entryIndex) != ResTableType.NO_ENTRY ? entryIndex : -1;
+    }
+
+    // 无分支二分：区间每次减半，比较结果只决定起点是否移动，JIT 可以生成条件传送指令。
+    int low = 0;
+    int length = indices.length;
+    while (length > 1) {
+      final int half = length >>> 1;
+      low = (indices[low + half] & 0xFFFF) <= entryIndex ? low + half : low;
+      length -= half;
+    }
+
+    if (length == 1 && (indices[low] & 0xFFFF) == entryIndex) {
+      return low;
+    }
+    return -1;
+  }
+
+  /**
+   * @param entryIndex 资源项索引。
+   * @return 资源项相对资源项起始位置的偏移，不存在时为 {@link ResTableType#NO_ENTRY}。
+   */
+  public int offset(int entryIndex) {
+    final int slot = slotOf(entryIndex);
+    return slot < 0 ? ResTableType.NO_ENTRY : offsetAt(slot);
+  }
+}
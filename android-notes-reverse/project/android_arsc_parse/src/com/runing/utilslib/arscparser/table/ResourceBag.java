@@ -0,0 +1,110 @@
+package com.runing.utilslib.arscparser.table;
+
+/**
+ * 合并父 bag 后的 bag，由 {@link ResourceTable#resolveBag(int, ResourceConfig)} 创建，不可变。
+ * <p>
+ * bag 项按名称（属性的资源 ID，无符号比较）升序排列，子 bag 中的项覆盖父 bag 中的同名项。
+ * 值按 {@code dataType << 32 | data} 打包保存在 long 数组中，动态引用已转换为实际的资源 ID。
+ */
+public final class ResourceBag {
+
+  private final int id;
+  private final int parent;
+  /** 父 bag 链的长度，不含自身 */
+  private final int parentDepth;
+  private final int[] names;
+  private final long[] values;
+
+  ResourceBag(int id, int parent, int parentDepth, int[] names, long[] values) {
+    this.id = id;
+    this.parent = parent;
+    this.parentDepth = parentDepth;
+    this.names = names;
+    this.values = values;
+  }
+
+  static long pack(byte dataType, int data) {
+    return (dataType & 0xFFL) << 32 | data & 0xFFFFFFFFL;
+  }
+
+  /** 资源 ID，0xPPTTEEEE */
+  public int id() {
+    return id;
+  }
+
+  /** 已转换的父 bag 资源 ID，没有时为 0 */
+  public int parent() {
+    return parent;
+  }
+
+  /** 合并的父 bag 个数 */
+  public int parentDepth() {
+    return parentDepth;
+  }
+
+  public int size() {
+    return names.length;
+  }
+
+  /** 第 index 项的名称，按升序排列 */
+  public int name(int index) {
+    return names[index];
+  }
+
+  public byte dataType(int index) {
+    return (byte) (values[index] >>> 32);
+  }
+
+  public int data(int index) {
+    return (int) values[index];
+  }
+
+  /** 打包的值，{@code dataType << 32 | data} */
+  public long packedValue(int index) {
+    return values[index];
+  }
+
+  public ResourceValue value(int index) {
+    return new ResourceValue(dataType(index), data(index));
+  }
+
+  /**
+   * @param name bag 项名称，即属性的资源 ID。
+   * @return 项的位置，不存在时返回负数。
+   */
+  public int indexOf(int name) {
+    int low = 0;
+    int high = names.length - 1;
+    while (low <= high) {
+      final int mid = (low + high) >>> 1;
+      final int compare = Integer.compareUnsigned(names[mid], name);
+      if (compare < 0) {
+        low = mid + 1;
+      } else if (compare > 0) {
+        high = mid - 1;
+      } else {
+        return mid;
+      }
+    }
+    return -(low + 1);
+  }
+
+  /**
+   * @param name bag 项名称，即属性的资源 ID。
+   * @return 值，不存在时返回 null。
+   */
+  public ResourceValue get(int name) {
+    final int index = indexOf(name);
+    return index < 0 ? null : value(index);
+  }
+
+  @Override
+  public String toString() {
+    final StringBuilder builder = new StringBuilder()
+        .append("0x").append(Integer.toHexString(id)).append(" {parent=0x").append(Integer.toHexString(parent));
+    for (int i = 0; i < names.length; i++) {
+      builder.append(", 0x").append(Integer.toHexString(names[i])).append('=').append(value(i));
+    }
+    return builder.append('}').toString();
+  }
+}
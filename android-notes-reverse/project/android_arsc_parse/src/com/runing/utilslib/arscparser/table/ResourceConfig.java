@@ -0,0 +1,1231 @@
+package com.runing.utilslib.arscparser.table;
+
+import com.runing.utilslib.arscparser.type.ResTableConfig;
+
+import java.nio.ByteBuffer;
+
+import static com.runing.utilslib.arscparser.type.ResTableConfig.*;
+
+/**
+ * 资源配置，{@link ResTableConfig} 展开后的不可变形式，既表示资源的限定符，也表示目标设备的配置。
+ * <p>
+ * {@link #match(ResourceConfig)} 和 {@link #isBetterThan(ResourceConfig, ResourceConfig)} 遵循 AOSP
+ * ResTable_config::match / isBetterThan 的规则。由于没有 CLDR 数据，无法推断语言的书写系统，
+ * 任意一方缺少 localeScript 时按旧规则比较国家，国家的优先级为：与请求相同 > 未指定 > 其它。
+ */
+public final class ResourceConfig {
+
+  /** 默认配置，没有任何限定符 */
+  public static final ResourceConfig DEFAULT = new Builder().build();
+
+  private static final int MASK_SCREENROUND = 0x03;
+
+  /*
+    ResTable_config 中各个成员的结束位置，size 不足时对应的成员不存在。
+   */
+  private static final int END_IMSI = 8;
+  private static final int END_LOCALE = 12;
+  private static final int END_SCREEN_TYPE = 16;
+  private static final int END_INPUT = 20;
+  private static final int END_SCREEN_SIZE = 24;
+  private static final int END_VERSION = 28;
+  private static final int END_SCREEN_CONFIG = 32;
+  private static final int END_SCREEN_SIZE_DP = 36;
+  private static final int END_LOCALE_SCRIPT = 40;
+  private static final int END_LOCALE_VARIANT = 48;
+  private static final int END_SCREEN_CONFIG2 = 52;
+
+  private final int mcc;
+  private final int mnc;
+  /** 两个字符的语言，高字节在前，0 表示未指定 */
+  private final int language;
+  /** 两个字符的国家，高字节在前，0 表示未指定 */
+  private final int country;
+  private final int orientation;
+  private final int touchscreen;
+  private final int density;
+  private final int keyboard;
+  private final int navigation;
+  private final int inputFlags;
+  private final int screenWidth;
+  private final int screenHeight;
+  private final int sdkVersion;
+  private final int minorVersion;
+  private final int screenLayout;
+  private final int uiMode;
+  private final int smallestScreenWidthDp;
+  private final int screenWidthDp;
+  private final int screenHeightDp;
+  /** 四个字符的书写系统，高字节在前 */
+  private final int localeScript;
+  /** 八个字符的变体，高字节在前 */
+  private final long localeVariant;
+  private final int screenLayout2;
+
+  private ResourceConfig(Builder builder) {
+    mcc = builder.mcc;
+    mnc = builder.mnc;
+    language = builder.language;
+    country = builder.country;
+    orientation = builder.orientation;
+    touchscreen = builder.touchscreen;
+    density = builder.density;
+    keyboard = builder.keyboard;
+    navigation = builder.navigation;
+    inputFlags = builder.inputFlags;
+    screenWidth = builder.screenWidth;
+    screenHeight = builder.screenHeight;
+    sdkVersion = builder.sdkVersion;
+    minorVersion = builder.minorVersion;
+    screenLayout = builder.screenLayout;
+    uiMode = builder.uiMode;
+    smallestScreenWidthDp = builder.smallestScreenWidthDp;
+    screenWidthDp = builder.screenWidthDp;
+    screenHeightDp = builder.screenHeightDp;
+    localeScript = builder.localeScript;
+    localeVariant = builder.localeVariant;
+    screenLayout2 = builder.screenLayout2;
+  }
+
+  /**
+   * 从资源表中的配置创建，只读取 {@link ResTableConfig#size} 范围内的成员，其余成员视为未指定。
+   *
+   * @param config 配置信息。
+   * @return 资源配置。
+   */
+  public static ResourceConfig of(ResTableConfig config) {
+    final int size = config.size;
+    final Builder builder = new Builder();
+
+    if (size >= END_IMSI) {
+      builder.mcc = config.mobileConfig.data.mcc & 0xFFFF;
+      builder.mnc = config.mobileConfig.data.mnc & 0xFFFF;
+    }
+
+    if (size >= END_LOCALE) {
+      builder.language = pack(config.localeConfig.data.language);
+      builder.country = pack(config.localeConfig.data.country);
+    }
+
+    if (size >= END_SCREEN_TYPE) {
+      builder.orientation = config.screenTypeConfig.data.orientation & 0xFF;
+      builder.touchscreen = config.screenTypeConfig.data.touchscreen & 0xFF;
+      builder.density = config.screenTypeConfig.data.density & 0xFFFF;
+    }
+
+    if (size >= END_INPUT) {
+      builder.keyboard = config.inputConfig.data.keyboard & 0xFF;
+      builder.navigation = config.inputConfig.data.navigation & 0xFF;
+      builder.inputFlags = config.inputConfig.data.inputFlags & 0xFF;
+    }
+
+    if (size >= END_SCREEN_SIZE) {
+      builder.screenWidth = config.screenSizeConfig.data.screenWidth & 0xFFFF;
+      builder.screenHeight = config.screenSizeConfig.data.screenHeight & 0xFFFF;
+    }
+
+    if (size >= END_VERSION) {
+      builder.sdkVersion = config.versionConfig.data.sdkVersion & 0xFFFF;
+      builder.minorVersion = config.versionConfig.data.minorVersion & 0xFFFF;
+    }
+
+    if (size >= END_SCREEN_CONFIG) {
+      builder.screenLayout = config.screenConfig.data.screenLayout & 0xFF;
+      builder.uiMode = config.screenConfig.data.uiMode & 0xFF;
+      builder.smallestScreenWidthDp = config.screenConfig.data.smallestScreenWidthDp & 0xFFFF;
+    }
+
+    if (size >= END_SCREEN_SIZE_DP) {
+      builder.screenWidthDp = config.screenSizeDpConfig.data.screenWidth & 0xFFFF;
+      builder.screenHeightDp = config.screenSizeDpConfig.data.screenHeight & 0xFFFF;
+    }
+
+    if (size >= END_LOCALE_SCRIPT) {
+      builder.localeScript = pack(config.localeScript);
+    }
+
+    if (size >= END_LOCALE_VARIANT) {
+      long variant = 0;
+      for (char c : config.localeVariant) {
+        variant = variant << 8 | (c & 0xFF);
+      }
+      builder.localeVariant = variant;
+    }
+
+    if (size >= END_SCREEN_CONFIG2) {
+      builder.screenLayout2 = config.screenConfig2.data.screenLayout2 & 0xFF;
+    }
+
+    return builder.build();
+  }
+
+  /** {@link #write(ByteBuffer)} 写入的字节数 */
+  static final int SERIALIZED_SIZE = 21 * Integer.BYTES + Long.BYTES;
+
+  /*
+    按成员声明顺序写入，用于资源表快照，读取时不经过 ResTableConfig 解码。
+   */
+  void write(ByteBuffer buffer) {
+    buffer.putInt(mcc).putInt(mnc).putInt(language).putInt(country)
+        .putInt(orientation).putInt(touchscreen).putInt(density)
+        .putInt(keyboard).putInt(navigation).putInt(inputFlags)
+        .putInt(screenWidth).putInt(screenHeight).putInt(sdkVersion).putInt(minorVersion)
+        .putInt(screenLayout).putInt(uiMode).putInt(smallestScreenWidthDp)
+        .putInt(screenWidthDp).putInt(screenHeightDp).putInt(localeScript)
+        .putLong(localeVariant).putInt(screenLayout2);
+  }
+
+  static ResourceConfig read(ByteBuffer buffer, int offset) {
+    final Builder builder = new Builder();
+    builder.mcc = buffer.getInt(offset);
+    builder.mnc = buffer.getInt(offset + 4);
+    builder.language = buffer.getInt(offset + 8);
+    builder.country = buffer.getInt(offset + 12);
+    builder.orientation = buffer.getInt(offset + 16);
+    builder.touchscreen = buffer.getInt(offset + 20);
+    builder.density = buffer.getInt(offset + 24);
+    builder.keyboard = buffer.getInt(offset + 28);
+    builder.navigation = buffer.getInt(offset + 32);
+    builder.inputFlags = buffer.getInt(offset + 36);
+    builder.screenWidth = buffer.getInt(offset + 40);
+    builder.screenHeight = buffer.getInt(offset + 44);
+    builder.sdkVersion = buffer.getInt(offset + 48);
+    builder.minorVersion = buffer.getInt(offset + 52);
+    builder.screenLayout = buffer.getInt(offset + 56);
+    builder.uiMode = buffer.getInt(offset + 60);
+    builder.smallestScreenWidthDp = buffer.getInt(offset + 64);
+    builder.screenWidthDp = buffer.getInt(offset + 68);
+    builder.screenHeightDp = buffer.getInt(offset + 72);
+    builder.localeScript = buffer.getInt(offset + 76);
+    builder.localeVariant = buffer.getLong(offset + 80);
+    builder.screenLayout2 = buffer.getInt(offset + 88);
+    return builder.build();
+  }
+
+  /**
+   * {@link #of(ResTableConfig)} 的逆过程，size 之外的成员为 0，联合体的整数成员按小端序由各字段组成。
+   *
+   * @param size 配置大小，即 {@link ResTableConfig#size}。
+   * @return 新的配置信息。
+   */
+  ResTableConfig toTableConfig(int size) {
+    final ResTableConfig config = new ResTableConfig();
+    config.size = size;
+
+    config.mobileConfig = new MobileConfig();
+    config.mobileConfig.data = new MobileConfig.Type();
+    config.localeConfig = new LocaleConfig();
+    config.localeConfig.data = new LocaleConfig.Type();
+    config.screenTypeConfig = new ScreenTypeConfig();
+    config.screenTypeConfig.data = new ScreenTypeConfig.Type();
+    config.inputConfig = new InputConfig();
+    config.inputConfig.data = new InputConfig.Type();
+    config.screenSizeConfig = new ScreenSizeConfig();
+    config.screenSizeConfig.data = new ScreenSizeConfig.Type();
+    config.versionConfig = new VersionConfig();
+    config.versionConfig.data = new VersionConfig.Type();
+    config.screenConfig = new ScreenConfig();
+    config.screenConfig.data = new ScreenConfig.Type();
+    config.screenSizeDpConfig = new ScreenSizeDpConfig();
+    config.screenSizeDpConfig.data = new ScreenSizeDpConfig.Type();
+    config.screenConfig2 = new ScreenConfig2();
+    config.screenConfig2.data = new ScreenConfig2.Type();
+
+    config.mobileConfig.data.mcc = (short) mcc;
+    config.mobileConfig.data.mnc = (short) mnc;
+    config.mobileConfig.imsi = mcc | mnc << 16;
+
+    unpack(language, config.localeConfig.data.language);
+    unpack(country, config.localeConfig.data.country);
+    config.localeConfig.locale = language >>> 8 | (language & 0xFF) << 8 | (country >>> 8) << 16 |
+        (country & 0xFF) << 24;
+
+    config.screenTypeConfig.data.orientation = (byte) orientation;
+    config.screenTypeConfig.data.touchscreen = (byte) touchscreen;
+    config.screenTypeConfig.data.density = (short) density;
+    config.screenTypeConfig.screenType = orientation | touchscreen << 8 | density << 16;
+
+    config.inputConfig.data.keyboard = (byte) keyboard;
+    config.inputConfig.data.navigation = (byte) navigation;
+    config.inputConfig.data.inputFlags = (byte) inputFlags;
+    config.inputConfig.input = keyboard | navigation << 8 | inputFlags << 16;
+
+    config.screenSizeConfig.data.screenWidth = (short) screenWidth;
+    config.screenSizeConfig.data.screenHeight = (short) screenHeight;
+    config.screenSizeConfig.screenSize = screenWidth | screenHeight << 16;
+
+    config.versionConfig.data.sdkVersion = (short) sdkVersion;
+    config.versionConfig.data.minorVersion = (short) minorVersion;
+    config.versionConfig.screenSize = sdkVersion | minorVersion << 16;
+
+    config.screenConfig.data.screenLayout = (byte) screenLayout;
+    config.screenConfig.data.uiMode = (byte) uiMode;
+    config.screenConfig.data.smallestScreenWidthDp = (short) smallestScreenWidthDp;
+    config.screenConfig.screenConfig = screenLayout | uiMode << 8 | smallestScreenWidthDp << 16;
+
+    config.screenSizeDpConfig.data.screenWidth = (short) screenWidthDp;
+    config.screenSizeDpConfig.data.screenHeight = (short) screenHeightDp;
+    config.screenSizeDpConfig.screenSizeDp = screenWidthDp | screenHeightDp << 16;
+
+    unpack(localeScript, config.localeScript);
+    unpack(localeVariant, config.localeVariant);
+
+    config.screenConfig2.data.screenLayout2 = (byte) screenLayout2;
+    config.screenConfig2.screenConfig2 = screenLayout2;
+    return config;
+  }
+
+  /*
+    pack(char[]) 的逆过程，高字节在前。
+   */
+  private static void unpack(long value, char[] chars) {
+    for (int i = 0; i < chars.length; i++) {
+      chars[i] = (char) ((value >>> ((chars.length - 1 - i) * 8)) & 0xFF);
+    }
+  }
+
+  private static int pack(char[] chars) {
+    int value = 0;
+    for (char c : chars) {
+      value = value << 8 | (c & 0xFF);
+    }
+    return value;
+  }
+
+  private static int pack(String s, int length) {
+    if (s == null || s.isEmpty()) {
+      return 0;
+    }
+
+    if (s.length() != length) {
+      throw new IllegalArgumentException("expected " + length + " characters: " + s);
+    }
+
+    int value = 0;
+    for (int i = 0; i < length; i++) {
+      value = value << 8 | (s.charAt(i) & 0xFF);
+    }
+    return value;
+  }
+
+  /**
+   * 资源配置是否可以用于目标设备配置。
+   *
+   * @param settings 目标设备配置。
+   * @return 是否匹配。
+   */
+  public boolean match(ResourceConfig settings) {
+    if (mcc != 0 && mcc != settings.mcc) {
+      return false;
+    }
+    if (mnc != 0 && mnc != settings.mnc) {
+      return false;
+    }
+
+    if (language != 0 || country != 0) {
+      // 匹配时不考虑国家和变体之外的差异，书写系统已知时比较书写系统，否则比较国家。
+      if (language != settings.language) {
+        return false;
+      }
+
+      if (settings.localeScript == 0 || localeScript == 0) {
+        if (country != 0 && country != settings.country) {
+          return false;
+        }
+      } else if (localeScript != settings.localeScript) {
+        return false;
+      }
+    }
+
+    final int layoutDir = screenLayout & MASK_LAYOUTDIR;
+    if (layoutDir != 0 && layoutDir != (settings.screenLayout & MASK_LAYOUTDIR)) {
+      return false;
+    }
+
+    // 比设备屏幕更大的屏幕尺寸不匹配。
+    final int screenSize = screenLayout & MASK_SCREENSIZE;
+    if (screenSize != 0 && screenSize > (settings.screenLayout & MASK_SCREENSIZE)) {
+      return false;
+    }
+
+    final int screenLong = screenLayout & MASK_SCREENLONG;
+    if (screenLong != 0 && screenLong != (settings.screenLayout & MASK_SCREENLONG)) {
+      return false;
+    }
+
+    final int uiModeType = uiMode & MASK_UI_MODE_TYPE;
+    if (uiModeType != 0 && uiModeType != (settings.uiMode & MASK_UI_MODE_TYPE)) {
+      return false;
+    }
+
+    final int uiModeNight = uiMode & MASK_UI_MODE_NIGHT;
+    if (uiModeNight != 0 && uiModeNight != (settings.uiMode & MASK_UI_MODE_NIGHT)) {
+      return false;
+    }
+
+    if (smallestScreenWidthDp != 0 && smallestScreenWidthDp > settings.smallestScreenWidthDp) {
+      return false;
+    }
+
+    final int screenRound = screenLayout2 & MASK_SCREENROUND;
+    if (screenRound != 0 && screenRound != (settings.screenLayout2 & MASK_SCREENROUND)) {
+      return false;
+    }
+
+    if (screenWidthDp != 0 && screenWidthDp > settings.screenWidthDp) {
+      return false;
+    }
+    if (screenHeightDp != 0 && screenHeightDp > settings.screenHeightDp) {
+      return false;
+    }
+
+    // 密度总是匹配，由 isBetterThan 选择最接近的密度。
+    if (orientation != 0 && orientation != settings.orientation) {
+      return false;
+    }
+    if (touchscreen != 0 && touchscreen != settings.touchscreen) {
+      return false;
+    }
+
+    final int keysHidden = inputFlags & MASK_KEYSHIDDEN;
+    final int setKeysHidden = settings.inputFlags & MASK_KEYSHIDDEN;
+    if (keysHidden != 0 && keysHidden != setKeysHidden) {
+      // 请求 KEYSHIDDEN_SOFT 时兼容匹配 KEYSHIDDEN_NO。
+      if (keysHidden != KEYSHIDDEN_NO || setKeysHidden != KEYSHIDDEN_SOFT) {
+        return false;
+      }
+    }
+
+    final int navHidden = inputFlags & MASK_NAVHIDDEN;
+    if (navHidden != 0 && navHidden != (settings.inputFlags & MASK_NAVHIDDEN)) {
+      return false;
+    }
+    if (keyboard != 0 && keyboard != settings.keyboard) {
+      return false;
+    }
+    if (navigation != 0 && navigation != settings.navigation) {
+      return false;
+    }
+
+    if (screenWidth != 0 && screenWidth > settings.screenWidth) {
+      return false;
+    }
+    if (screenHeight != 0 && screenHeight > settings.screenHeight) {
+      return false;
+    }
+
+    if (sdkVersion != 0 && sdkVersion > settings.sdkVersion) {
+      return false;
+    }
+    return minorVersion == 0 || minorVersion == settings.minorVersion;
+  }
+
+  /**
+   * 对于目标设备配置，本配置是否比另一个配置更合适，两者都应已通过 {@link #match(ResourceConfig)}。
+   *
+   * @param o         另一个配置。
+   * @param requested 目标设备配置。
+   * @return 本配置是否更合适。
+   */
+  public boolean isBetterThan(ResourceConfig o, ResourceConfig requested) {
+    return isBetterThan(o, requested, ~0);
+  }
+
+  /**
+   * 只比较 configChanges 中的维度，两个配置在其它维度上应相同，例如同一资源项的各个配置在类型规范掩码之外的维度上相同。
+   *
+   * @param o             另一个配置。
+   * @param requested     目标设备配置。
+   * @param configChanges 需要比较的维度，{@link ResTableConfig#CONFIG_LOCALE} 等的组合。
+   * @return 本配置是否更合适。
+   */
+  boolean isBetterThan(ResourceConfig o, ResourceConfig requested, int configChanges) {
+    if ((configChanges & CONFIG_MCC) != 0 && mcc != o.mcc && requested.mcc != 0) {
+      return mcc != 0;
+    }
+    if ((configChanges & CONFIG_MNC) != 0 && mnc != o.mnc && requested.mnc != 0) {
+      return mnc != 0;
+    }
+
+    if ((configChanges & CONFIG_LOCALE) != 0) {
+      if (isLocaleBetterThan(o, requested)) {
+        return true;
+      } else if (o.isLocaleBetterThan(this, requested)) {
+        return false;
+      }
+    }
+
+    if ((configChanges & CONFIG_LAYOUTDIR) != 0 &&
+        ((screenLayout ^ o.screenLayout) & MASK_LAYOUTDIR) != 0 && (requested.screenLayout & MASK_LAYOUTDIR) != 0) {
+      return (screenLayout & MASK_LAYOUTDIR) > (o.screenLayout & MASK_LAYOUTDIR);
+    }
+
+    // 不大于设备的配置中，最大的最接近设备。
+    if ((configChanges & CONFIG_SMALLEST_SCREEN_SIZE) != 0 && smallestScreenWidthDp != o.smallestScreenWidthDp) {
+      return smallestScreenWidthDp > o.smallestScreenWidthDp;
+    }
+
+    if ((configChanges & CONFIG_SCREEN_SIZE) != 0 &&
+        (screenWidthDp != o.screenWidthDp || screenHeightDp != o.screenHeightDp)) {
+      int myDelta = 0;
+      int otherDelta = 0;
+      if (requested.screenWidthDp != 0) {
+        myDelta += requested.screenWidthDp - screenWidthDp;
+        otherDelta += requested.screenWidthDp - o.screenWidthDp;
+      }
+      if (requested.screenHeightDp != 0) {
+        myDelta += requested.screenHeightDp - screenHeightDp;
+        otherDelta += requested.screenHeightDp - o.screenHeightDp;
+      }
+      if (myDelta != otherDelta) {
+        return myDelta < otherDelta;
+      }
+    }
+
+    if ((configChanges & CONFIG_SCREEN_LAYOUT) != 0 &&
+        ((screenLayout ^ o.screenLayout) & MASK_SCREENSIZE) != 0 && (requested.screenLayout & MASK_SCREENSIZE) != 0) {
+      // 请求的屏幕尺寸不小于 normal 时，未指定视为 normal。
+      final int mySize = screenLayout & MASK_SCREENSIZE;
+      final int oSize = o.screenLayout & MASK_SCREENSIZE;
+      int fixedMySize = mySize;
+      int fixedOSize = oSize;
+      if ((requested.screenLayout & MASK_SCREENSIZE) >= SCREENSIZE_NORMAL) {
+        if (fixedMySize == 0) {
+          fixedMySize = SCREENSIZE_NORMAL;
+        }
+        if (fixedOSize == 0) {
+          fixedOSize = SCREENSIZE_NORMAL;
+        }
+      }
+
+      if (fixedMySize == fixedOSize) {
+        return mySize != 0;
+      }
+      return fixedMySize > fixedOSize;
+    }
+
+    if ((configChanges & CONFIG_SCREEN_LAYOUT) != 0 &&
+        ((screenLayout ^ o.screenLayout) & MASK_SCREENLONG) != 0 && (requested.screenLayout & MASK_SCREENLONG) != 0) {
+      return (screenLayout & MASK_SCREENLONG) != 0;
+    }
+
+    if ((configChanges & CONFIG_SCREEN_ROUND) != 0 && ((screenLayout2 ^ o.screenLayout2) & MASK_SCREENROUND) != 0 &&
+        (requested.screenLayout2 & MASK_SCREENROUND) != 0) {
+      return (screenLayout2 & MASK_SCREENROUND) != 0;
+    }
+
+    if ((configChanges & CONFIG_ORIENTATION) != 0 && orientation != o.orientation && requested.orientation != 0) {
+      return orientation != 0;
+    }
+
+    if ((configChanges & CONFIG_UI_MODE) != 0) {
+      if (((uiMode ^ o.uiMode) & MASK_UI_MODE_TYPE) != 0 && (requested.uiMode & MASK_UI_MODE_TYPE) != 0) {
+        return (uiMode & MASK_UI_MODE_TYPE) != 0;
+      }
+      if (((uiMode ^ o.uiMode) & MASK_UI_MODE_NIGHT) != 0 && (requested.uiMode & MASK_UI_MODE_NIGHT) != 0) {
+        return (uiMode & MASK_UI_MODE_NIGHT) != 0;
+      }
+    }
+
+    if ((configChanges & CONFIG_DENSITY) != 0 && density != o.density) {
+      return isDensityBetterThan(o, requested);
+    }
+
+    if ((configChanges & CONFIG_TOUCHSCREEN) != 0 && touchscreen != o.touchscreen && requested.touchscreen != 0) {
+      return touchscreen != 0;
+    }
+
+    if ((configChanges & (CONFIG_KEYBOARD_HIDDEN | CONFIG_KEYBOARD | CONFIG_NAVIGATION | CONFIG_SCREEN_SIZE |
+        CONFIG_VERSION)) == 0) {
+      return false;
+    }
+
+    final int keysHidden = inputFlags & MASK_KEYSHIDDEN;
+    final int oKeysHidden = o.inputFlags & MASK_KEYSHIDDEN;
+    final int reqKeysHidden = requested.inputFlags & MASK_KEYSHIDDEN;
+    if ((configChanges & CONFIG_KEYBOARD_HIDDEN) != 0 && keysHidden != oKeysHidden && reqKeysHidden != 0) {
+      if (keysHidden == 0) {
+        return false;
+      } else if (oKeysHidden == 0) {
+        return true;
+      }
+
+      // KEYSHIDDEN_NO 与 KEYSHIDDEN_SOFT 兼容时，完全相同的更合适。
+      if (reqKeysHidden == keysHidden) {
+        return true;
+      } else if (reqKeysHidden == oKeysHidden) {
+        return false;
+      }
+    }
+
+    final int navHidden = inputFlags & MASK_NAVHIDDEN;
+    final int oNavHidden = o.inputFlags & MASK_NAVHIDDEN;
+    if ((configChanges & CONFIG_KEYBOARD_HIDDEN) != 0 && navHidden != oNavHidden &&
+        (requested.inputFlags & MASK_NAVHIDDEN) != 0) {
+      if (navHidden == 0) {
+        return false;
+      } else if (oNavHidden == 0) {
+        return true;
+      }
+    }
+
+    if ((configChanges & CONFIG_KEYBOARD) != 0 && keyboard != o.keyboard && requested.keyboard != 0) {
+      return keyboard != 0;
+    }
+    if ((configChanges & CONFIG_NAVIGATION) != 0 && navigation != o.navigation && requested.navigation != 0) {
+      return navigation != 0;
+    }
+
+    if ((configChanges & CONFIG_SCREEN_SIZE) != 0 && (screenWidth != o.screenWidth || screenHeight != o.screenHeight)) {
+      // 与请求尺寸的差值之和越小越合适，未指定的尺寸差值最大。
+      int myDelta = 0;
+      int otherDelta = 0;
+      if (requested.screenWidth != 0) {
+        myDelta += requested.screenWidth - screenWidth;
+        otherDelta += requested.screenWidth - o.screenWidth;
+      }
+      if (requested.screenHeight != 0) {
+        myDelta += requested.screenHeight - screenHeight;
+        otherDelta += requested.screenHeight - o.screenHeight;
+      }
+      if (myDelta != otherDelta) {
+        return myDelta < otherDelta;
+      }
+    }
+
+    if ((configChanges & CONFIG_VERSION) != 0 && sdkVersion != o.sdkVersion && requested.sdkVersion != 0) {
+      return sdkVersion > o.sdkVersion;
+    }
+    if ((configChanges & CONFIG_VERSION) != 0 && minorVersion != o.minorVersion && requested.minorVersion != 0) {
+      return minorVersion != 0;
+    }
+    return false;
+  }
+
+  private boolean isLocaleBetterThan(ResourceConfig o, ResourceConfig requested) {
+    if (requested.language == 0 && requested.country == 0) {
+      return false;
+    }
+
+    if (language == 0 && country == 0 && o.language == 0 && o.country == 0) {
+      return false;
+    }
+
+    if (language != o.language) {
+      // 对于 en-US，未指定语言的资源比其它国家的英语资源更合适，因为通常美式英语资源放在默认配置中。
+      if (requested.language == ('e' << 8 | 'n') && requested.country == ('U' << 8 | 'S')) {
+        if (language != 0) {
+          return country == 0 || country == requested.country;
+        }
+        return !(o.country == 0 || o.country == requested.country);
+      }
+      return language != 0;
+    }
+
+    // 语言相同时比较国家，与请求相同的国家优先，其次是未指定的国家。
+    if (country != o.country) {
+      return regionScore(country, requested.country) > regionScore(o.country, requested.country);
+    }
+
+    final boolean variantMatches = localeVariant == requested.localeVariant;
+    final boolean otherVariantMatches = o.localeVariant == requested.localeVariant;
+    if (variantMatches != otherVariantMatches) {
+      return variantMatches;
+    }
+    return false;
+  }
+
+  private static int regionScore(int country, int requestedCountry) {
+    if (country == requestedCountry) {
+      return 2;
+    }
+    return country == 0 ? 1 : 0;
+  }
+
+  private boolean isDensityBetterThan(ResourceConfig o, ResourceConfig requested) {
+    // 未指定时使用系统默认密度 DENSITY_MEDIUM。
+    final int thisDensity = density != 0 ? density : DENSITY_MEDIUM;
+    final int otherDensity = o.density != 0 ? o.density : DENSITY_MEDIUM;
+
+    // DENSITY_ANY 总是优于缩放其它密度的资源。
+    if (thisDensity == DENSITY_ANY) {
+      return true;
+    } else if (otherDensity == DENSITY_ANY) {
+      return false;
+    }
+
+    int requestedDensity = requested.density;
+    if (requestedDensity == 0 || requestedDensity == DENSITY_ANY) {
+      requestedDensity = DENSITY_MEDIUM;
+    }
+
+    int h = thisDensity;
+    int l = otherDensity;
+    boolean bImBigger = true;
+    if (l > h) {
+      final int t = h;
+      h = l;
+      l = t;
+      bImBigger = false;
+    }
+
+    if (requestedDensity >= h) {
+      // 请求的密度比两者都高，选择较高的。
+      return bImBigger;
+    }
+    if (l >= requestedDensity) {
+      // 请求的密度比两者都低，选择较低的。
+      return !bImBigger;
+    }
+
+    // 缩小比放大效果好一倍。
+    if (((2 * l) - requestedDensity) * h > requestedDensity * requestedDensity) {
+      return !bImBigger;
+    }
+    return bImBigger;
+  }
+
+  public int mcc() {
+    return mcc;
+  }
+
+  public int mnc() {
+    return mnc;
+  }
+
+  /** 语言，未指定时为空字符串 */
+  public String language() {
+    return unpack(language, 2);
+  }
+
+  /** 国家，未指定时为空字符串 */
+  public String country() {
+    return unpack(country, 2);
+  }
+
+  public int orientation() {
+    return orientation;
+  }
+
+  public int touchscreen() {
+    return touchscreen;
+  }
+
+  public int density() {
+    return density;
+  }
+
+  public int keyboard() {
+    return keyboard;
+  }
+
+  public int navigation() {
+    return navigation;
+  }
+
+  public int inputFlags() {
+    return inputFlags;
+  }
+
+  public int screenWidth() {
+    return screenWidth;
+  }
+
+  public int screenHeight() {
+    return screenHeight;
+  }
+
+  public int sdkVersion() {
+    return sdkVersion;
+  }
+
+  public int minorVersion() {
+    return minorVersion;
+  }
+
+  public int screenLayout() {
+    return screenLayout;
+  }
+
+  public int uiMode() {
+    return uiMode;
+  }
+
+  public int smallestScreenWidthDp() {
+    return smallestScreenWidthDp;
+  }
+
+  public int screenWidthDp() {
+    return screenWidthDp;
+  }
+
+  public int screenHeightDp() {
+    return screenHeightDp;
+  }
+
+  /** 书写系统，未指定时为空字符串 */
+  public String localeScript() {
+    return unpack(localeScript, 4);
+  }
+
+  public int screenLayout2() {
+    return screenLayout2;
+  }
+
+  private static String unpack(long value, int length) {
+    final StringBuilder builder = new StringBuilder(length);
+    for (int i = length - 1; i >= 0; i--) {
+      final char c = (char) ((value >>> (i * 8)) & 0xFF);
+      if (c != 0) {
+        builder.append(c);
+      }
+    }
+    return builder.toString();
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+
+    if (!(o instanceof ResourceConfig)) {
+      return false;
+    }
+
+    final ResourceConfig that = (ResourceConfig) o;
+    return mcc == that.mcc && mnc == that.mnc && language == that.language && country == that.country &&
+        orientation == that.orientation && touchscreen == that.touchscreen && density == that.density &&
+        keyboard == that.keyboard && navigation == that.navigation && inputFlags == that.inputFlags &&
+        screenWidth == that.screenWidth && screenHeight == that.screenHeight &&
+        sdkVersion == that.sdkVersion && minorVersion == that.minorVersion &&
+        screenLayout == that.screenLayout && uiMode == that.uiMode &&
+        smallestScreenWidthDp == that.smallestScreenWidthDp &&
+        screenWidthDp == that.screenWidthDp && screenHeightDp == that.screenHeightDp &&
+        localeScript == that.localeScript && localeVariant == that.localeVariant &&
+        screenLayout2 == that.screenLayout2;
+  }
+
+  @Override
+  public int hashCode() {
+    int result = mcc;
+    result = 31 * result + mnc;
+    result = 31 * result + language;
+    result = 31 * result + country;
+    result = 31 * result + orientation;
+    result = 31 * result + touchscreen;
+    result = 31 * result + density;
+    result = 31 * result + keyboard;
+    result = 31 * result + navigation;
+    result = 31 * result + inputFlags;
+    result = 31 * result + screenWidth;
+    result = 31 * result + screenHeight;
+    result = 31 * result + sdkVersion;
+    result = 31 * result + minorVersion;
+    result = 31 * result + screenLayout;
+    result = 31 * result + uiMode;
+    result = 31 * result + smallestScreenWidthDp;
+    result = 31 * result + screenWidthDp;
+    result = 31 * result + screenHeightDp;
+    result = 31 * result + localeScript;
+    result = 31 * result + Long.hashCode(localeVariant);
+    result = 31 * result + screenLayout2;
+    return result;
+  }
+
+  /**
+   * @return 与资源目录限定符相同格式的字符串，例如 zh-rCN-xxhdpi-v21，默认配置为 default。
+   */
+  @Override
+  public String toString() {
+    final StringBuilder builder = new StringBuilder();
+    if (mcc != 0) {
+      append(builder, "mcc" + mcc);
+    }
+    if (mnc != 0) {
+      append(builder, "mnc" + mnc);
+    }
+    if (language != 0) {
+      append(builder, language());
+    }
+    if (country != 0) {
+      append(builder, "r" + country());
+    }
+    if (localeScript != 0) {
+      append(builder, "s" + localeScript());
+    }
+
+    switch (screenLayout & MASK_LAYOUTDIR) {
+      case LAYOUTDIR_LTR:
+        append(builder, "ldltr");
+        break;
+      case LAYOUTDIR_RTL:
+        append(builder, "ldrtl");
+        break;
+      default:
+    }
+
+    if (smallestScreenWidthDp != 0) {
+      append(builder, "sw" + smallestScreenWidthDp + "dp");
+    }
+    if (screenWidthDp != 0) {
+      append(builder, "w" + screenWidthDp + "dp");
+    }
+    if (screenHeightDp != 0) {
+      append(builder, "h" + screenHeightDp + "dp");
+    }
+
+    switch (screenLayout & MASK_SCREENSIZE) {
+      case SCREENSIZE_SMALL:
+        append(builder, "small");
+        break;
+      case SCREENSIZE_NORMAL:
+        append(builder, "normal");
+        break;
+      case SCREENSIZE_LARGE:
+        append(builder, "large");
+        break;
+      case SCREENSIZE_XLARGE:
+        append(builder, "xlarge");
+        break;
+      default:
+    }
+
+    switch (screenLayout & MASK_SCREENLONG) {
+      case SCREENLONG_NO:
+        append(builder, "notlong");
+        break;
+      case SCREENLONG_YES:
+        append(builder, "long");
+        break;
+      default:
+    }
+
+    switch (screenLayout2 & MASK_SCREENROUND) {
+      case 1:
+        append(builder, "notround");
+        break;
+      case 2:
+        append(builder, "round");
+        break;
+      default:
+    }
+
+    switch (orientation) {
+      case ORIENTATION_PORT:
+        append(builder, "port");
+        break;
+      case ORIENTATION_LAND:
+        append(builder, "land");
+        break;
+      case ORIENTATION_SQUARE:
+        append(builder, "square");
+        break;
+      default:
+    }
+
+    switch (uiMode & MASK_UI_MODE_TYPE) {
+      case UI_MODE_TYPE_DESK:
+        append(builder, "desk");
+        break;
+      case UI_MODE_TYPE_CAR:
+        append(builder, "car");
+        break;
+      case UI_MODE_TYPE_TELEVISION:
+        append(builder, "television");
+        break;
+      case UI_MODE_TYPE_APPLIANCE:
+        append(builder, "appliance");
+        break;
+      case UI_MODE_TYPE_WATCH:
+        append(builder, "watch");
+        break;
+      default:
+    }
+
+    switch (uiMode & MASK_UI_MODE_NIGHT) {
+      case UI_MODE_NIGHT_NO:
+        append(builder, "notnight");
+        break;
+      case UI_MODE_NIGHT_YES:
+        append(builder, "night");
+        break;
+      default:
+    }
+
+    if (density != 0) {
+      append(builder, densityName(density));
+    }
+
+    switch (touchscreen) {
+      case TOUCHSCREEN_NOTOUCH:
+        append(builder, "notouch");
+        break;
+      case TOUCHSCREEN_STYLUS:
+        append(builder, "stylus");
+        break;
+      case TOUCHSCREEN_FINGER:
+        append(builder, "finger");
+        break;
+      default:
+    }
+
+    switch (inputFlags & MASK_KEYSHIDDEN) {
+      case KEYSHIDDEN_NO:
+        append(builder, "keysexposed");
+        break;
+      case KEYSHIDDEN_YES:
+        append(builder, "keyshidden");
+        break;
+      case KEYSHIDDEN_SOFT:
+        append(builder, "keyssoft");
+        break;
+      default:
+    }
+
+    switch (keyboard) {
+      case KEYBOARD_NOKEYS:
+        append(builder, "nokeys");
+        break;
+      case KEYBOARD_QWERTY:
+        append(builder, "qwerty");
+        break;
+      case KEYBOARD_12KEY:
+        append(builder, "12key");
+        break;
+      default:
+    }
+
+    switch (inputFlags & MASK_NAVHIDDEN) {
+      case NAVHIDDEN_NO:
+        append(builder, "navexposed");
+        break;
+      case NAVHIDDEN_YES:
+        append(builder, "navhidden");
+        break;
+      default:
+    }
+
+    switch (navigation) {
+      case NAVIGATION_NONAV:
+        append(builder, "nonav");
+        break;
+      case NAVIGATION_DPAD:
+        append(builder, "dpad");
+        break;
+      case NAVIGATION_TRACKBALL:
+        append(builder, "trackball");
+        break;
+      case NAVIGATION_WHEEL:
+        append(builder, "wheel");
+        break;
+      default:
+    }
+
+    if (screenWidth != 0 || screenHeight != 0) {
+      append(builder, screenWidth + "x" + screenHeight);
+    }
+    if (sdkVersion != 0 || minorVersion != 0) {
+      append(builder, minorVersion != 0 ? "v" + sdkVersion + "." + minorVersion : "v" + sdkVersion);
+    }
+
+    return builder.length() == 0 ? "default" : builder.toString();
+  }
+
+  private static void append(StringBuilder builder, String qualifier) {
+    if (builder.length() != 0) {
+      builder.append('-');
+    }
+    builder.append(qualifier);
+  }
+
+  private static String densityName(int density) {
+    switch (density) {
+      case DENSITY_LOW:
+        return "ldpi";
+      case DENSITY_MEDIUM:
+        return "mdpi";
+      case DENSITY_TY:
+        return "tvdpi";
+      case DENSITY_HIGH:
+        return "hdpi";
+      case DENSITY_XHIGH:
+        return "xhdpi";
+      case DENSITY_XXHIGH:
+        return "xxhdpi";
+      case DENSITY_XXXHIGH:
+        return "xxxhdpi";
+      case DENSITY_ANY:
+        return "anydpi";
+      case DENSITY_NONE:
+        return "nodpi";
+      default:
+        return density + "dpi";
+    }
+  }
+
+  /**
+   * 资源配置构建器，用于描述目标设备，未设置的成员表示未指定。
+   */
+  public static final class Builder {
+    private int mcc;
+    private int mnc;
+    private int language;
+    private int country;
+    private int orientation;
+    private int touchscreen;
+    private int density;
+    private int keyboard;
+    private int navigation;
+    private int inputFlags;
+    private int screenWidth;
+    private int screenHeight;
+    private int sdkVersion;
+    private int minorVersion;
+    private int screenLayout;
+    private int uiMode;
+    private int smallestScreenWidthDp;
+    private int screenWidthDp;
+    private int screenHeightDp;
+    private int localeScript;
+    private long localeVariant;
+    private int screenLayout2;
+
+    public Builder mcc(int mcc) {
+      this.mcc = mcc;
+      return this;
+    }
+
+    public Builder mnc(int mnc) {
+      this.mnc = mnc;
+      return this;
+    }
+
+    /**
+     * @param language 两个字符的语言，例如 zh。
+     * @param country  两个字符的国家，例如 CN，可以为 null。
+     */
+    public Builder locale(String language, String country) {
+      this.language = pack(language, 2);
+      this.country = pack(country, 2);
+      return this;
+    }
+
+    /**
+     * @param script 四个字符的书写系统，例如 Hans。
+     */
+    public Builder localeScript(String script) {
+      this.localeScript = pack(script, 4);
+      return this;
+    }
+
+    /**
+     * @param orientation {@link ResTableConfig#ORIENTATION_PORT} 等。
+     */
+    public Builder orientation(int orientation) {
+      this.orientation = orientation;
+      return this;
+    }
+
+    /**
+     * @param touchscreen {@link ResTableConfig#TOUCHSCREEN_FINGER} 等。
+     */
+    public Builder touchscreen(int touchscreen) {
+      this.touchscreen = touchscreen;
+      return this;
+    }
+
+    /**
+     * @param density 屏幕密度 dpi，例如 {@link ResTableConfig#DENSITY_XXHIGH}。
+     */
+    public Builder density(int density) {
+      this.density = density;
+      return this;
+    }
+
+    public Builder keyboard(int keyboard) {
+      this.keyboard = keyboard;
+      return this;
+    }
+
+    public Builder navigation(int navigation) {
+      this.navigation = navigation;
+      return this;
+    }
+
+    /**
+     * @param inputFlags {@link ResTableConfig#MASK_KEYSHIDDEN} 和 {@link ResTableConfig#MASK_NAVHIDDEN} 部分的组合。
+     */
+    public Builder inputFlags(int inputFlags) {
+      this.inputFlags = inputFlags;
+      return this;
+    }
+
+    /**
+     * @param width  屏幕宽度像素。
+     * @param height 屏幕高度像素。
+     */
+    public Builder screenSize(int width, int height) {
+      this.screenWidth = width;
+      this.screenHeight = height;
+      return this;
+    }
+
+    public Builder sdkVersion(int sdkVersion) {
+      this.sdkVersion = sdkVersion;
+      return this;
+    }
+
+    public Builder minorVersion(int minorVersion) {
+      this.minorVersion = minorVersion;
+      return this;
+    }
+
+    /**
+     * @param screenLayout 屏幕尺寸、长屏和布局方向部分的组合，例如 {@link ResTableConfig#SCREENSIZE_NORMAL}。
+     */
+    public Builder screenLayout(int screenLayout) {
+      this.screenLayout = screenLayout;
+      return this;
+    }
+
+    /**
+     * @param uiMode 界面模式类型和夜间模式部分的组合，例如 {@link ResTableConfig#UI_MODE_NIGHT_YES}。
+     */
+    public Builder uiMode(int uiMode) {
+      this.uiMode = uiMode;
+      return this;
+    }
+
+    /**
+     * 设置夜间模式，保留界面模式类型。
+     */
+    public Builder nightMode(boolean night) {
+      this.uiMode = (uiMode & ~MASK_UI_MODE_NIGHT) | (night ? UI_MODE_NIGHT_YES : UI_MODE_NIGHT_NO);
+      return this;
+    }
+
+    public Builder smallestScreenWidthDp(int smallestScreenWidthDp) {
+      this.smallestScreenWidthDp = smallestScreenWidthDp;
+      return this;
+    }
+
+    public Builder screenSizeDp(int widthDp, int heightDp) {
+      this.screenWidthDp = widthDp;
+      this.screenHeightDp = heightDp;
+      return this;
+    }
+
+    /**
+     * @param screenLayout2 圆形屏幕部分，1 表示非圆形，2 表示圆形。
+     */
+    public Builder screenLayout2(int screenLayout2) {
+      this.screenLayout2 = screenLayout2;
+      return this;
+    }
+
+    public ResourceConfig build() {
+      return new ResourceConfig(this);
+    }
+  }
+}
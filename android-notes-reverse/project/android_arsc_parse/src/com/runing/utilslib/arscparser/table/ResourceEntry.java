@@ -0,0 +1,127 @@
+package com.runing.utilslib.arscparser.table;
+
+import com.runing.utilslib.arscparser.type.ResTableEntry;
+
+/**
+ * 资源项，简单资源项持有一个 {@link ResourceValue}，复杂资源项（bag）持有父 bag 的资源 ID 和 bag 项列表。
+ */
+public final class ResourceEntry {
+
+  private static final int[] EMPTY_NAMES = new int[0];
+  private static final ResourceValue[] EMPTY_VALUES = new ResourceValue[0];
+
+  private final int id;
+  private final int flags;
+  private final String key;
+  private final ResourceValue value;
+  private final int parent;
+  private final int[] bagNames;
+  private final ResourceValue[] bagValues;
+
+  /**
+   * 简单资源项。
+   *
+   * @param id    资源 ID。
+   * @param flags 资源项标志位。
+   * @param key   资源项名称。
+   * @param value 资源值。
+   */
+  public ResourceEntry(int id, int flags, String key, ResourceValue value) {
+    this.id = id;
+    this.flags = flags;
+    this.key = key;
+    this.value = value;
+    this.parent = 0;
+    this.bagNames = EMPTY_NAMES;
+    this.bagValues = EMPTY_VALUES;
+  }
+
+  /**
+   * 复杂资源项（bag），数组由资源项持有，调用方不应再修改。
+   *
+   * @param id        资源 ID。
+   * @param flags     资源项标志位。
+   * @param key       资源项名称。
+   * @param parent    父 bag 的资源 ID，没有时为 0。
+   * @param bagNames  bag 项名称的资源 ID。
+   * @param bagValues bag 项的值。
+   */
+  public ResourceEntry(int id, int flags, String key, int parent, int[] bagNames, ResourceValue[] bagValues) {
+    if (bagNames.length != bagValues.length) {
+      throw new IllegalArgumentException("bag names and values length mismatch.");
+    }
+
+    this.id = id;
+    this.flags = flags;
+    this.key = key;
+    this.value = null;
+    this.parent = parent;
+    this.bagNames = bagNames;
+    this.bagValues = bagValues;
+  }
+
+  /** 资源 ID，0xPPTTEEEE */
+  public int id() {
+    return id;
+  }
+
+  /** 资源项在类型中的索引，即资源 ID 的低 16 位 */
+  public int entryIndex() {
+    return id & 0xFFFF;
+  }
+
+  public int flags() {
+    return flags;
+  }
+
+  public boolean isComplex() {
+    return (flags & ResTableEntry.FLAG_COMPLEX) != 0;
+  }
+
+  public boolean isPublic() {
+    return (flags & ResTableEntry.FLAG_PUBLIC) != 0;
+  }
+
+  /** 资源项名称 */
+  public String key() {
+    return key;
+  }
+
+  /** 简单资源项的值，复杂资源项为 null */
+  public ResourceValue value() {
+    return value;
+  }
+
+  /** 父 bag 的资源 ID，没有时为 0 */
+  public int parent() {
+    return parent;
+  }
+
+  public int bagSize() {
+    return bagNames.length;
+  }
+
+  public int bagName(int index) {
+    return bagNames[index];
+  }
+
+  public ResourceValue bagValue(int index) {
+    return bagValues[index];
+  }
+
+  @Override
+  public String toString() {
+    final StringBuilder builder = new StringBuilder()
+        .append("0x").append(Integer.toHexString(id)).append(' ').append(key).append(' ');
+
+    if (!isComplex()) {
+      return builder.append(value).toString();
+    }
+
+    builder.append("{parent=0x").append(Integer.toHexString(parent));
+    for (int i = 0; i < bagNames.length; i++) {
+      builder.append(", 0x").append(Integer.toHexString(bagNames[i])).append('=').append(bagValues[i]);
+    }
+    return builder.append('}').toString();
+  }
+}
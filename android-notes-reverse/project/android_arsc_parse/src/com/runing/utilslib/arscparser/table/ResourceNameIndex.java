@@ -0,0 +1,183 @@
+package com.runing.utilslib.arscparser.table;
+
+/**
+ * 资源名称到资源 ID 的索引，开放寻址（线性探测）散列表，槽位直接保存资源 ID。
+ * <p>
+ * 名称格式为 [package:]type/name，散列值直接在 {@link CharSequence} 上计算，查找过程不创建字符串。
+ * 名称散列值与 {@link String#hashCode()} 相同，槽位同时保存散列值，只有散列值相同时才比较字符串。
+ */
+final class ResourceNameIndex {
+
+  private final ResourceTable table;
+  /** 槽位中的资源 ID，0 表示空槽位 */
+  private final int[] ids;
+  /** 槽位中名称的散列值，探测时先比较散列值，避免比较字符串 */
+  private final int[] hashes;
+  /** 槽位中资源 ID 对应的资源名称 type/name */
+  private final String[] names;
+  private final int mask;
+
+  ResourceNameIndex(ResourceTable table) {
+    this.table = table;
+
+    int count = 0;
+    for (ResourcePackage resourcePackage : table.packages()) {
+      for (ResourceTypeSpec typeSpec : resourcePackage.typeSpecs()) {
+        count += typeSpec.entryCount();
+      }
+    }
+
+    // 装载因子不超过 0.5。
+    int capacity = 2;
+    while (capacity < count * 2) {
+      capacity <<= 1;
+    }
+
+    ids = new int[capacity];
+    hashes = new int[capacity];
+    names = new String[capacity];
+    mask = capacity - 1;
+
+    for (ResourcePackage resourcePackage : table.packages()) {
+      for (ResourceTypeSpec typeSpec : resourcePackage.typeSpecs()) {
+        if (typeSpec.name() == null) {
+          continue;
+        }
+
+        final int idPrefix = (resourcePackage.id() & 0xFF) << 24 | (typeSpec.id() & 0xFF) << 16;
+        for (int i = 0; i < typeSpec.entryCount(); i++) {
+          final String key = keyOf(typeSpec, i);
+          if (key != null) {
+            put(idPrefix | i, typeSpec.name() + '/' + key);
+          }
+        }
+      }
+    }
+  }
+
+  /*
+    资源项在各个配置下的名称相同，取第一个存在的资源项；延迟解码的资源表只读取名称，不解码资源项。
+   */
+  private static String keyOf(ResourceTypeSpec typeSpec, int entryIndex) {
+    for (int i = 0; i < typeSpec.typeCount(); i++) {
+      final String key = typeSpec.type(i).key(entryIndex);
+      if (key != null) {
+        return key;
+      }
+    }
+    return null;
+  }
+
+  private void put(int resId, String name) {
+    final int hash = name.hashCode();
+
+    // 同名资源保留先插入的，即文件中靠前的资源包。
+    int slot = mix(hash) & mask;
+    while (ids[slot] != 0) {
+      slot = (slot + 1) & mask;
+    }
+
+    ids[slot] = resId;
+    hashes[slot] = hash;
+    names[slot] = name;
+  }
+
+  /**
+   * @param name 资源名称，[package:]type/name，可以带 @ 前缀。
+   * @return 资源 ID，不存在时返回 0。
+   */
+  int idOf(CharSequence name) {
+    // 最常见的 type/name 字符串直接使用 String 自身的散列值。
+    if (name instanceof String) {
+      final String string = (String) name;
+      if (string.indexOf(':') < 0 && string.indexOf('@') < 0) {
+        return string.indexOf('/') < 0 ? 0 : find(string, string.hashCode(), 0, 0, -1);
+      }
+    }
+
+    int start = 0;
+    final int end = name.length();
+    if (start < end && name.charAt(start) == '@') {
+      start++;
+    }
+
+    // 一次遍历同时确定分隔符位置和 type/name 部分的散列值（与 String#hashCode 相同），遇到包名分隔符时重新计算。
+    int colon = -1;
+    int slash = -1;
+    int hash = 0;
+    for (int i = start; i < end; i++) {
+      final char c = name.charAt(i);
+      if (c == ':' && colon < 0 && slash < 0) {
+        colon = i;
+        hash = 0;
+        continue;
+      }
+
+      if (c == '/' && slash < 0) {
+        slash = i;
+      }
+      hash = 31 * hash + c;
+    }
+
+    if (slash < 0) {
+      return 0;
+    }
+
+    return find(name, hash, start, colon < 0 ? start : colon + 1, colon);
+  }
+
+  /*
+    按散列值探测，名称的 type/name 部分从 typeStart 开始，colon 为包名分隔符位置，没有包名时为 -1。
+   */
+  private int find(CharSequence name, int hash, int start, int typeStart, int colon) {
+    final int end = name.length();
+    int slot = mix(hash) & mask;
+    for (int resId; (resId = ids[slot]) != 0; slot = (slot + 1) & mask) {
+      if (hashes[slot] != hash || !regionEquals(name, typeStart, end, names[slot])) {
+        continue;
+      }
+
+      if (colon < 0 || regionEquals(name, start, colon, table.getPackage(resId >>> 24).name())) {
+        return resId;
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * @param resId 资源 ID。
+   * @return 资源名称 type/name，不存在时返回 null。
+   */
+  String nameOf(int resId) {
+    final ResourceTypeSpec typeSpec = table.getTypeSpec(resId);
+    final int entryIndex = resId & 0xFFFF;
+    if (typeSpec == null || typeSpec.name() == null || entryIndex >= typeSpec.entryCount()) {
+      return null;
+    }
+
+    final String key = keyOf(typeSpec, entryIndex);
+    return key != null ? typeSpec.name() + '/' + key : null;
+  }
+
+  private static int mix(int hash) {
+    return hash ^ (hash >>> 16);
+  }
+
+  private static boolean regionEquals(CharSequence s, int start, int end, String target) {
+    if (target == null || target.length() != end - start) {
+      return false;
+    }
+
+    // 完整的字符串直接使用 String#equals。
+    if (start == 0 && end == s.length() && s instanceof String) {
+      return target.equals(s);
+    }
+
+    for (int i = start; i < end; i++) {
+      if (s.charAt(i) != target.charAt(i - start)) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
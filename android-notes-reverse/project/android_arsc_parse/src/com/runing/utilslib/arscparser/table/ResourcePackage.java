@@ -0,0 +1,139 @@
+package com.runing.utilslib.arscparser.table;
+
+import com.runing.utilslib.arscparser.type.ResTablePackage;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 资源包，对应一个 {@link ResTablePackage} 数据块。
+ */
+public final class ResourcePackage {
+
+  private final int id;
+  private final String name;
+  private final StringPool typeStrings;
+  private final StringPool keyStrings;
+  private final List<ResourceTypeSpec> typeSpecs;
+  /** 引用的共享库编译时的 Package ID，与 libraryNames 一一对应 */
+  private final int[] libraryIds;
+  /** 引用的共享库包名 */
+  private final String[] libraryNames;
+  /** 按 Type ID - 1 索引的类型规范 */
+  private final ResourceTypeSpec[] typeSpecById;
+
+  /**
+   * @param id          Package ID。
+   * @param name        包名。
+   * @param typeStrings 类型字符串池，数组由本对象持有。
+   * @param keyStrings  资源项名称字符串池，数组由本对象持有。
+   * @param typeSpecs   类型规范。
+   */
+  public ResourcePackage(int id, String name, String[] typeStrings, String[] keyStrings,
+                         List<ResourceTypeSpec> typeSpecs) {
+    this(id, name, typeStrings, keyStrings, typeSpecs, new int[0], new String[0]);
+  }
+
+  /**
+   * @param id           Package ID。
+   * @param name         包名。
+   * @param typeStrings  类型字符串池，数组由本对象持有。
+   * @param keyStrings   资源项名称字符串池，数组由本对象持有。
+   * @param typeSpecs    类型规范。
+   * @param libraryIds   引用的共享库编译时的 Package ID，数组由本对象持有。
+   * @param libraryNames 引用的共享库包名，与 libraryIds 一一对应，数组由本对象持有。
+   */
+  public ResourcePackage(int id, String name, String[] typeStrings, String[] keyStrings,
+                         List<ResourceTypeSpec> typeSpecs, int[] libraryIds, String[] libraryNames) {
+    this(id, name, new StringPool(typeStrings), new StringPool(keyStrings), typeSpecs, libraryIds, libraryNames);
+  }
+
+  ResourcePackage(int id, String name, StringPool typeStrings, StringPool keyStrings,
+                  List<ResourceTypeSpec> typeSpecs, int[] libraryIds, String[] libraryNames) {
+    if (libraryIds.length != libraryNames.length) {
+      throw new IllegalArgumentException("library ids length " + libraryIds.length +
+          " != library names length " + libraryNames.length);
+    }
+
+    this.id = id;
+    this.libraryIds = libraryIds;
+    this.libraryNames = libraryNames;
+    this.name = name;
+    this.typeStrings = typeStrings;
+    this.keyStrings = keyStrings;
+    this.typeSpecs = Collections.unmodifiableList(new ArrayList<>(typeSpecs));
+
+    int maxId = 0;
+    for (ResourceTypeSpec typeSpec : typeSpecs) {
+      maxId = Math.max(maxId, typeSpec.id());
+    }
+
+    typeSpecById = new ResourceTypeSpec[maxId];
+    for (ResourceTypeSpec typeSpec : typeSpecs) {
+      typeSpecById[typeSpec.id() - 1] = typeSpec;
+    }
+  }
+
+  /** Package ID */
+  public int id() {
+    return id;
+  }
+
+  /** 包名 */
+  public String name() {
+    return name;
+  }
+
+  public int typeStringCount() {
+    return typeStrings.size();
+  }
+
+  public String typeString(int index) {
+    return typeStrings.get(index);
+  }
+
+  public int keyStringCount() {
+    return keyStrings.size();
+  }
+
+  public String keyString(int index) {
+    return keyStrings.get(index);
+  }
+
+  StringPool typeStrings() {
+    return typeStrings;
+  }
+
+  StringPool keyStrings() {
+    return keyStrings;
+  }
+
+  /** 引用的共享库个数，来自共享库数据块 */
+  public int libraryCount() {
+    return libraryIds.length;
+  }
+
+  /** 共享库编译时分配的 Package ID */
+  public int libraryId(int index) {
+    return libraryIds[index];
+  }
+
+  /** 共享库包名 */
+  public String libraryName(int index) {
+    return libraryNames[index];
+  }
+
+  /** 类型规范，按文件中的顺序排列 */
+  public List<ResourceTypeSpec> typeSpecs() {
+    return typeSpecs;
+  }
+
+  /**
+   * @param typeId 资源 Type ID，从 1 开始。
+   * @return 类型规范，不存在时返回 null。
+   */
+  public ResourceTypeSpec typeSpec(int typeId) {
+    return typeId >= 1 && typeId <= typeSpecById.length ? typeSpecById[typeId - 1] : null;
+  }
+}
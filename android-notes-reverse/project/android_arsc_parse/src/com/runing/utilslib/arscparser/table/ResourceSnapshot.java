@@ -0,0 +1,396 @@
+package com.runing.utilslib.arscparser.table;
+
+import com.runing.utilslib.arscparser.type.ResTableEntry;
+import com.runing.utilslib.arscparser.type.ResTableType;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * 资源表快照，保存已解析的资源表，重新打开时映射文件，只创建资源包、类型规范和类型的骨架，
+ * 字符串和资源项在首次访问时从映射的数据中读取，不经过结构体解码。
+ * <p>
+ * 快照记录源文件的大小和 CRC32C 校验值，源文件变化后快照失效。所有数值为小端序，各部分按 4 字节对齐：
+ * <pre>
+ * 头部：magic, version, long 源文件大小, long 源文件校验值, packageCount, 保留
+ * 全局字符串池
+ * 每个资源包：id, libraryCount, 名称字符串池（包名和共享库包名）, int[libraryCount] 共享库 ID,
+ *           类型字符串池, 资源项名称字符串池, typeSpecCount
+ *   每个类型规范：id, entryCount, typeCount, int[entryCount] 配置变化掩码
+ *     每个类型：资源配置, configSize, sparse, slotCount, dataSize,
+ *             [short[slotCount] 稀疏资源项索引], int[slotCount] 偏移, 资源项数据
+ * </pre>
+ * 资源项数据：flags, keyIndex，简单资源项之后为 dataType, data，复杂资源项之后为 parent, count 和
+ * count 个 (name, dataType, data)。
+ */
+final class ResourceSnapshot {
+
+  /** "ARSS" */
+  private static final int MAGIC = 0x53535241;
+  private static final int VERSION = 1;
+  private static final int HEADER_SIZE = 32;
+
+  private ResourceSnapshot() {}
+
+  /**
+   * @param source 源文件。
+   * @return 源文件的 CRC32C 校验值。
+   */
+  static long checksum(Path source) throws IOException {
+    try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+      final CRC32C crc = new CRC32C();
+      crc.update(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+      return crc.getValue();
+    }
+  }
+
+  /* ------------------------------------------------ 写入 ------------------------------------------------ */
+
+  static void write(ResourceTable table, Path snapshot, Path source) throws IOException {
+    final Writer writer = new Writer();
+    writer.ensure(HEADER_SIZE);
+    writer.buffer.putInt(MAGIC).putInt(VERSION)
+        .putLong(Files.size(source)).putLong(checksum(source))
+        .putInt(table.packages().size()).putInt(0);
+
+    writer.putPool(table.strings());
+    for (ResourcePackage resourcePackage : table.packages()) {
+      writePackage(writer, resourcePackage);
+    }
+
+    // 先写入临时文件再替换，其它进程不会读到写了一半的快照。
+    final Path absolute = snapshot.toAbsolutePath();
+    final Path temp = Files.createTempFile(absolute.getParent(), absolute.getFileName().toString(), ".tmp");
+    try {
+      try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+        final ByteBuffer data = writer.buffer;
+        data.flip();
+        while (data.hasRemaining()) {
+          channel.write(data);
+        }
+      }
+      Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+  }
+
+  private static void writePackage(Writer writer, ResourcePackage resourcePackage) {
+    final int libraryCount = resourcePackage.libraryCount();
+    final String[] names = new String[libraryCount + 1];
+    names[0] = resourcePackage.name();
+    for (int i = 0; i < libraryCount; i++) {
+      names[i + 1] = resourcePackage.libraryName(i);
+    }
+
+    writer.ensure(2 * Integer.BYTES);
+    writer.buffer.putInt(resourcePackage.id()).putInt(libraryCount);
+    writer.putPool(new StringPool(names));
+
+    writer.ensure(libraryCount * Integer.BYTES);
+    for (int i = 0; i < libraryCount; i++) {
+      writer.buffer.putInt(resourcePackage.libraryId(i));
+    }
+
+    writer.putPool(resourcePackage.typeStrings());
+    writer.putPool(resourcePackage.keyStrings());
+
+    // 资源项只保存名称在字符串池中的索引。
+    final Map<String, Integer> keyIndices = new HashMap<>();
+    final StringPool keyStrings = resourcePackage.keyStrings();
+    for (int i = keyStrings.size() - 1; i >= 0; i--) {
+      keyIndices.put(keyStrings.get(i), i);
+    }
+
+    writer.ensure(Integer.BYTES);
+    writer.buffer.putInt(resourcePackage.typeSpecs().size());
+    for (ResourceTypeSpec typeSpec : resourcePackage.typeSpecs()) {
+      writer.ensure((3 + typeSpec.entryCount()) * Integer.BYTES);
+      writer.buffer.putInt(typeSpec.id()).putInt(typeSpec.entryCount()).putInt(typeSpec.typeCount());
+      for (int i = 0; i < typeSpec.entryCount(); i++) {
+        writer.buffer.putInt(typeSpec.specFlags(i));
+      }
+
+      for (ResourceType type : typeSpec.types()) {
+        writeType(writer, type, keyIndices);
+      }
+    }
+  }
+
+  private static void writeType(Writer writer, ResourceType type, Map<String, Integer> keyIndices) {
+    final EntryOffsets entryOffsets = type.entryOffsets();
+    final boolean sparse = entryOffsets.isSparse();
+    final int slotCount = entryOffsets.slotCount();
+
+    // 先按槽位编码资源项，得到新的偏移。
+    final int[] offsets = new int[slotCount];
+    final Writer data = new Writer();
+    for (int slot = 0; slot < slotCount; slot++) {
+      final ResourceEntry entry = type.entry(entryOffsets.indexAt(slot));
+      if (entry == null) {
+        offsets[slot] = ResTableType.NO_ENTRY;
+        continue;
+      }
+
+      offsets[slot] = data.buffer.position();
+      writeEntry(data, entry, keyIndices);
+    }
+
+    writer.ensure(ResourceConfig.SERIALIZED_SIZE + 5 * Integer.BYTES);
+    type.resourceConfig().write(writer.buffer);
+    writer.buffer.putInt(type.configSize()).putInt(sparse ? 1 : 0).putInt(slotCount)
+        .putInt(data.buffer.position());
+
+    if (sparse) {
+      writer.ensure(StringPool.align(slotCount * Short.BYTES));
+      final int start = writer.buffer.position();
+      for (int slot = 0; slot < slotCount; slot++) {
+        writer.buffer.putShort((short) entryOffsets.indexAt(slot));
+      }
+      writer.buffer.position(start + StringPool.align(slotCount * Short.BYTES));
+    }
+
+    writer.ensure(slotCount * Integer.BYTES + data.buffer.position());
+    for (int offset : offsets) {
+      writer.buffer.putInt(offset);
+    }
+
+    final ByteBuffer entries = data.buffer;
+    entries.flip();
+    writer.buffer.put(entries);
+  }
+
+  private static void writeEntry(Writer data, ResourceEntry entry, Map<String, Integer> keyIndices) {
+    final Integer keyIndex = entry.key() != null ? keyIndices.get(entry.key()) : null;
+
+    if (!entry.isComplex()) {
+      data.ensure(4 * Integer.BYTES);
+      data.buffer.putInt(entry.flags()).putInt(keyIndex != null ? keyIndex : -1)
+          .putInt(entry.value().dataType()).putInt(entry.value().data());
+      return;
+    }
+
+    data.ensure((4 + 3 * entry.bagSize()) * Integer.BYTES);
+    data.buffer.putInt(entry.flags()).putInt(keyIndex != null ? keyIndex : -1)
+        .putInt(entry.parent()).putInt(entry.bagSize());
+    for (int i = 0; i < entry.bagSize(); i++) {
+      data.buffer.putInt(entry.bagName(i)).putInt(entry.bagValue(i).dataType()).putInt(entry.bagValue(i).data());
+    }
+  }
+
+  /*
+    按需扩容的小端序缓冲区。
+   */
+  private static final class Writer {
+    ByteBuffer buffer = ByteBuffer.allocate(4096).order(ByteOrder.LITTLE_ENDIAN);
+
+    void ensure(int size) {
+      if (buffer.remaining() >= size) {
+        return;
+      }
+
+      int capacity = buffer.capacity();
+      while (capacity - buffer.position() < size) {
+        capacity <<= 1;
+      }
+
+      final ByteBuffer grown = ByteBuffer.allocate(capacity).order(ByteOrder.LITTLE_ENDIAN);
+      buffer.flip();
+      grown.put(buffer);
+      buffer = grown;
+    }
+
+    void putPool(StringPool pool) {
+      ensure(pool.writtenSize());
+      pool.write(buffer);
+    }
+  }
+
+  /* ------------------------------------------------ 读取 ------------------------------------------------ */
+
+  static ResourceTable open(Path snapshot, Path source) throws IOException {
+    if (!Files.isRegularFile(snapshot) || !Files.isRegularFile(source)) {
+      return null;
+    }
+
+    final MappedByteBuffer mapped;
+    try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+      if (channel.size() < HEADER_SIZE) {
+        return null;
+      }
+      mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+
+    final ByteBuffer buffer = mapped.order(ByteOrder.LITTLE_ENDIAN);
+    if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+      return null;
+    }
+
+    // 先比较大小，大小相同时再计算校验值。
+    if (buffer.getLong(8) != Files.size(source) || buffer.getLong(16) != checksum(source)) {
+      return null;
+    }
+
+    try {
+      return read(buffer);
+    } catch (IndexOutOfBoundsException | BufferUnderflowException | IllegalArgumentException e) {
+      throw new IOException("corrupt snapshot " + snapshot, e);
+    }
+  }
+
+  private static ResourceTable read(ByteBuffer buffer) {
+    final int packageCount = buffer.getInt(24);
+    int offset = HEADER_SIZE;
+
+    final StringPool strings = StringPool.map(buffer, offset);
+    offset += StringPool.mappedSize(buffer, offset);
+
+    final List<ResourcePackage> packages = new ArrayList<>(packageCount);
+    for (int p = 0; p < packageCount; p++) {
+      final int packageId = buffer.getInt(offset);
+      final int libraryCount = buffer.getInt(offset + 4);
+      offset += 2 * Integer.BYTES;
+
+      final StringPool names = StringPool.map(buffer, offset);
+      offset += StringPool.mappedSize(buffer, offset);
+
+      final int[] libraryIds = new int[libraryCount];
+      final String[] libraryNames = new String[libraryCount];
+      for (int i = 0; i < libraryCount; i++) {
+        libraryIds[i] = buffer.getInt(offset);
+        libraryNames[i] = names.get(i + 1);
+        offset += Integer.BYTES;
+      }
+
+      final StringPool typeStrings = StringPool.map(buffer, offset);
+      offset += StringPool.mappedSize(buffer, offset);
+      final StringPool keyStrings = StringPool.map(buffer, offset);
+      offset += StringPool.mappedSize(buffer, offset);
+
+      final int typeSpecCount = buffer.getInt(offset);
+      offset += Integer.BYTES;
+
+      final List<ResourceTypeSpec> typeSpecs = new ArrayList<>(typeSpecCount);
+      for (int s = 0; s < typeSpecCount; s++) {
+        final int typeId = buffer.getInt(offset);
+        final int entryCount = buffer.getInt(offset + 4);
+        final int typeCount = buffer.getInt(offset + 8);
+        offset += 3 * Integer.BYTES;
+
+        final int[] specFlags = readInts(buffer, offset, entryCount);
+        offset += entryCount * Integer.BYTES;
+
+        final int idPrefix = (packageId & 0xFF) << 24 | (typeId & 0xFF) << 16;
+        final List<ResourceType> types = new ArrayList<>(typeCount);
+        for (int t = 0; t < typeCount; t++) {
+          offset = readType(buffer, offset, typeId, entryCount, idPrefix, keyStrings, types);
+        }
+
+        final String name = typeId >= 1 && typeId <= typeStrings.size() ? typeStrings.get(typeId - 1) : null;
+        typeSpecs.add(new ResourceTypeSpec(typeId, name, specFlags, types));
+      }
+
+      packages.add(new ResourcePackage(packageId, names.get(0), typeStrings, keyStrings, typeSpecs, libraryIds,
+          libraryNames));
+    }
+
+    return new ResourceTable(strings, packages);
+  }
+
+  /*
+    读取一个类型并加入 types，返回下一个类型的位置。
+   */
+  private static int readType(final ByteBuffer buffer, int offset, int typeId, int entryCount, final int idPrefix,
+                              final StringPool keyStrings, List<ResourceType> types) {
+    final ResourceConfig resourceConfig = ResourceConfig.read(buffer, offset);
+    offset += ResourceConfig.SERIALIZED_SIZE;
+
+    final int configSize = buffer.getInt(offset);
+    final boolean sparse = buffer.getInt(offset + 4) != 0;
+    final int slotCount = buffer.getInt(offset + 8);
+    final int dataSize = buffer.getInt(offset + 12);
+    offset += 4 * Integer.BYTES;
+
+    short[] indices = null;
+    if (sparse) {
+      indices = new short[slotCount];
+      final ByteBuffer view = buffer.duplicate().order(buffer.order());
+      view.position(offset);
+      view.asShortBuffer().get(indices);
+      offset += StringPool.align(slotCount * Short.BYTES);
+    }
+
+    final int[] offsets = readInts(buffer, offset, slotCount);
+    offset += slotCount * Integer.BYTES;
+
+    final EntryOffsets entryOffsets = sparse ? EntryOffsets.sparse(entryCount, indices, offsets) :
+        EntryOffsets.dense(offsets);
+    if (!sparse && slotCount != entryCount) {
+      throw new IllegalArgumentException("slot count " + slotCount + " != entry count " + entryCount);
+    }
+
+    final int dataStart = offset;
+    types.add(new ResourceType(typeId, resourceConfig, configSize, entryOffsets, new ResourceType.EntryDecoder() {
+      @Override
+      public ResourceEntry decode(int entryIndex) {
+        return readEntry(buffer, dataStart + entryOffsets.offset(entryIndex), idPrefix | entryIndex, keyStrings);
+      }
+
+      @Override
+      public String key(int entryIndex) {
+        return readKey(buffer, dataStart + entryOffsets.offset(entryIndex), keyStrings);
+      }
+    }));
+
+    return offset + dataSize;
+  }
+
+  private static String readKey(ByteBuffer buffer, int offset, StringPool keyStrings) {
+    final int keyIndex = buffer.getInt(offset + 4);
+    return keyIndex >= 0 && keyIndex < keyStrings.size() ? keyStrings.get(keyIndex) : null;
+  }
+
+  private static ResourceEntry readEntry(ByteBuffer buffer, int offset, int resId, StringPool keyStrings) {
+    final int flags = buffer.getInt(offset);
+    final String key = readKey(buffer, offset, keyStrings);
+
+    if ((flags & ResTableEntry.FLAG_COMPLEX) == 0) {
+      return new ResourceEntry(resId, flags, key,
+          new ResourceValue((byte) buffer.getInt(offset + 8), buffer.getInt(offset + 12)));
+    }
+
+    final int parent = buffer.getInt(offset + 8);
+    final int count = buffer.getInt(offset + 12);
+    final int[] bagNames = new int[count];
+    final ResourceValue[] bagValues = new ResourceValue[count];
+
+    int index = offset + 16;
+    for (int i = 0; i < count; i++) {
+      bagNames[i] = buffer.getInt(index);
+      bagValues[i] = new ResourceValue((byte) buffer.getInt(index + 4), buffer.getInt(index + 8));
+      index += 12;
+    }
+    return new ResourceEntry(resId, flags, key, parent, bagNames, bagValues);
+  }
+
+  private static int[] readInts(ByteBuffer buffer, int offset, int count) {
+    final int[] result = new int[count];
+    final ByteBuffer view = buffer.duplicate().order(buffer.order());
+    view.position(offset);
+    view.asIntBuffer().get(result);
+    return result;
+  }
+}
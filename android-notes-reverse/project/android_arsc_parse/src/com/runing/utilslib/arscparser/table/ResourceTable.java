@@ -0,0 +1,269 @@
+package com.runing.utilslib.arscparser.table;
+
+import com.runing.utilslib.arscparser.type.ResValue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 资源表，{@code ArscParser} 的解析结果，创建后不可变，可被多个线程共享。
+ * <p>
+ * 包含全局字符串池和所有资源包，资源包中包含类型规范、各配置下的类型资源项集合以及资源项。
+ */
+public final class ResourceTable {
+
+  private final StringPool strings;
+  private final List<ResourcePackage> packages;
+  /** 按 Package ID 索引的资源包 */
+  private final ResourcePackage[] packageById = new ResourcePackage[256];
+  /** 按 Package ID 索引的动态引用表 */
+  private final DynamicRefTable[] dynamicRefTables = new DynamicRefTable[256];
+  /** 资源名称索引，首次使用时创建 */
+  private volatile ResourceNameIndex nameIndex;
+  /** 每个目标设备配置的解析器 */
+  private final ConcurrentMap<ResourceConfig, ConfigResolver> resolvers = new ConcurrentHashMap<>();
+
+  /**
+   * @param strings  全局字符串池，数组由本对象持有。
+   * @param packages 资源包。
+   */
+  public ResourceTable(String[] strings, List<ResourcePackage> packages) {
+    this(new StringPool(strings), packages);
+  }
+
+  ResourceTable(StringPool strings, List<ResourcePackage> packages) {
+    this.strings = strings;
+    this.packages = Collections.unmodifiableList(new ArrayList<>(packages));
+
+    for (ResourcePackage resourcePackage : packages) {
+      packageById[resourcePackage.id() & 0xFF] = resourcePackage;
+    }
+
+    // 共享库按包名在所有资源包中查找，资源包全部加入后再计算。
+    for (ResourcePackage resourcePackage : packages) {
+      dynamicRefTables[resourcePackage.id() & 0xFF] = new DynamicRefTable(resourcePackage, this);
+    }
+  }
+
+  public int stringCount() {
+    return strings.size();
+  }
+
+  /**
+   * @param index 全局字符串池索引，例如 {@link com.runing.utilslib.arscparser.type.ResValue#TYPE_STRING} 类型的数据。
+   * @return 字符串。
+   */
+  public String string(int index) {
+    return strings.get(index);
+  }
+
+  StringPool strings() {
+    return strings;
+  }
+
+  /** 资源包，按文件中的顺序排列 */
+  public List<ResourcePackage> packages() {
+    return packages;
+  }
+
+  /**
+   * @param packageId Package ID。
+   * @return 资源包，不存在时返回 null。
+   */
+  public ResourcePackage getPackage(int packageId) {
+    return packageId >= 0 && packageId < packageById.length ? packageById[packageId] : null;
+  }
+
+  /**
+   * @param packageId Package ID。
+   * @return 资源包的动态引用表，资源包不存在时返回 null。
+   */
+  public DynamicRefTable dynamicRefTable(int packageId) {
+    return packageId >= 0 && packageId < dynamicRefTables.length ? dynamicRefTables[packageId] : null;
+  }
+
+  /**
+   * 将资源项中的引用转换为资源表中实际的资源 ID，例如 {@link ResourceEntry#parent()}。
+   *
+   * @param resId       引用所在资源项的资源 ID，决定使用哪个资源包的动态引用表。
+   * @param referenceId 编译时的资源 ID。
+   * @return 实际的资源 ID，无法转换时返回 0。
+   */
+  public int lookupResourceId(int resId, int referenceId) {
+    final DynamicRefTable refTable = dynamicRefTables[resId >>> 24];
+    return refTable != null ? refTable.lookupResourceId(referenceId) : referenceId;
+  }
+
+  /**
+   * 将资源项中的动态引用转换为普通引用，其它类型的值原样返回，不产生额外开销。
+   *
+   * @param resId 值所在资源项的资源 ID，决定使用哪个资源包的动态引用表。
+   * @param value 资源值。
+   * @return 转换后的资源值。
+   */
+  public ResourceValue lookupValue(int resId, ResourceValue value) {
+    if (value == null || value.dataType() != ResValue.TYPE_DYNAMIC_REFERENCE) {
+      return value;
+    }
+
+    final DynamicRefTable refTable = dynamicRefTables[resId >>> 24];
+    return refTable != null ? refTable.lookupValue(value) : value;
+  }
+
+  /**
+   * @param resId 资源 ID，0xPPTTEEEE。
+   * @return 资源项所属类型的类型规范，不存在时返回 null。
+   */
+  public ResourceTypeSpec getTypeSpec(int resId) {
+    final ResourcePackage resourcePackage = packageById[resId >>> 24];
+    return resourcePackage != null ? resourcePackage.typeSpec((resId >> 16) & 0xFF) : null;
+  }
+
+  /**
+   * 按资源 ID 和配置索引查找资源项，只经过 Package、Type、配置和资源项四次数组下标访问。
+   *
+   * @param resId       资源 ID，0xPPTTEEEE。
+   * @param configIndex 配置索引，即类型数据块在 {@link ResourceTypeSpec#types()} 中的位置。
+   * @return 资源项，不存在时返回 null。
+   */
+  public ResourceEntry get(int resId, int configIndex) {
+    final ResourceTypeSpec typeSpec = getTypeSpec(resId);
+    if (typeSpec == null) {
+      return null;
+    }
+
+    final ResourceType type = typeSpec.type(configIndex);
+    return type != null ? type.entry(resId & 0xFFFF) : null;
+  }
+
+  /**
+   * 按目标设备配置选择最佳配置下的资源项。
+   * <p>
+   * 频繁查找时应持有 {@link #resolver(ResourceConfig)} 返回的解析器，避免每次按设备配置查找解析器。
+   *
+   * @param resId  资源 ID，0xPPTTEEEE。
+   * @param device 目标设备配置。
+   * @return 资源项，不存在或没有匹配的配置时返回 null。
+   */
+  public ResourceEntry get(int resId, ResourceConfig device) {
+    return resolver(device).get(resId);
+  }
+
+  /**
+   * 按目标设备配置解析 bag（例如 style），沿父 bag 链合并 bag 项，子 bag 覆盖父 bag 中的同名项。
+   * 结果缓存在设备配置的解析器中，频繁解析时应持有 {@link #resolver(ResourceConfig)} 返回的解析器。
+   *
+   * @param resId  资源 ID，0xPPTTEEEE。
+   * @param device 目标设备配置。
+   * @return 合并后的 bag，资源项不存在、没有匹配的配置、不是 bag、父 bag 链存在循环或过长时返回 null。
+   * @see ConfigResolver#resolveBag(int)
+   */
+  public ResourceBag resolveBag(int resId, ResourceConfig device) {
+    return resolver(device).resolveBag(resId);
+  }
+
+  /**
+   * 按目标设备配置沿引用链解析资源值，例如别名到另一个颜色的颜色，结果缓存在设备配置的解析器中。
+   *
+   * @param resId  资源 ID，0xPPTTEEEE。
+   * @param device 目标设备配置。
+   * @return 最终的值，资源项不存在、没有匹配的配置、是 bag 或引用链存在循环时返回 null。
+   * @see ConfigResolver#resolveValue(int)
+   */
+  public ResourceValue resolveValue(int resId, ResourceConfig device) {
+    return resolver(device).resolveValue(resId);
+  }
+
+  /**
+   * @param device 目标设备配置。
+   * @return 目标设备配置的解析器，相同的设备配置返回同一个解析器，其中缓存了每个资源项的选择结果。
+   */
+  public ConfigResolver resolver(ResourceConfig device) {
+    ConfigResolver resolver = resolvers.get(device);
+    if (resolver == null) {
+      final ConfigResolver created = new ConfigResolver(this, device);
+      resolver = resolvers.putIfAbsent(device, created);
+      if (resolver == null) {
+        resolver = created;
+      }
+    }
+    return resolver;
+  }
+
+  /**
+   * @param resId 资源 ID，0xPPTTEEEE。
+   * @return 资源项在各个配置下的值中第一个存在的资源项，不存在时返回 null。
+   */
+  public ResourceEntry getEntry(int resId) {
+    final ResourceTypeSpec typeSpec = getTypeSpec(resId);
+    if (typeSpec == null) {
+      return null;
+    }
+
+    final int entryIndex = resId & 0xFFFF;
+    for (int i = 0; i < typeSpec.typeCount(); i++) {
+      final ResourceEntry entry = typeSpec.type(i).entry(entryIndex);
+      if (entry != null) {
+        return entry;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * 按资源名称查找资源 ID，查找过程不创建字符串。
+   *
+   * @param name 资源名称，[package:]type/name，例如 string/app_name，可以带 @ 前缀。
+   * @return 资源 ID，不存在时返回 0。
+   */
+  public int idOf(CharSequence name) {
+    return nameIndex().idOf(name);
+  }
+
+  /**
+   * @param resId 资源 ID，0xPPTTEEEE。
+   * @return 资源名称 type/name，不存在时返回 null。
+   */
+  public String nameOf(int resId) {
+    return nameIndex().nameOf(resId);
+  }
+
+  /**
+   * 将资源表保存为快照，之后可以通过 {@link #openSnapshot(Path, Path)} 重新打开而不必再次解析。
+   * 延迟解码的资源表会在写入时解码所有资源项。
+   *
+   * @param snapshot 快照文件，已存在时被替换。
+   * @param source   资源表的源文件，快照中记录其大小和校验值。
+   * @throws IOException 可能出现的 io 异常。
+   */
+  public void writeSnapshot(Path snapshot, Path source) throws IOException {
+    ResourceSnapshot.write(this, snapshot, source);
+  }
+
+  /**
+   * 映射快照文件并创建资源表，不解析资源表，字符串和资源项在首次访问时从快照中读取。
+   *
+   * @param snapshot 快照文件。
+   * @param source   资源表的源文件，用于检查快照是否有效。
+   * @return 资源表，快照不存在、版本不同或源文件已变化时返回 null，此时应重新解析源文件。
+   * @throws IOException 可能出现的 io 异常，快照损坏时也会抛出。
+   */
+  public static ResourceTable openSnapshot(Path snapshot, Path source) throws IOException {
+    return ResourceSnapshot.open(snapshot, source);
+  }
+
+  private ResourceNameIndex nameIndex() {
+    ResourceNameIndex index = nameIndex;
+    if (index == null) {
+      // 并发时可能重复创建，结果相同，不需要加锁。
+      index = new ResourceNameIndex(this);
+      nameIndex = index;
+    }
+    return index;
+  }
+}
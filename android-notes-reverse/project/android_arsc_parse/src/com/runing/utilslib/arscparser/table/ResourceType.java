@@ -0,0 +1,194 @@
+package com.runing.utilslib.arscparser.table;
+
+import com.runing.utilslib.arscparser.type.ResTableConfig;
+import com.runing.utilslib.arscparser.type.ResTableType;
+
+/**
+ * 某一配置下的类型资源项集合，对应一个 {@link ResTableType} 数据块。
+ * <p>
+ * 延迟解码时只保存偏移数组，资源项在首次访问时由 {@link EntryDecoder} 解码并缓存在槽位中。
+ * 资源项不可变，并发访问时同一资源项可能被重复解码，但结果相同。
+ */
+public final class ResourceType {
+
+  private final int id;
+  /** 配置信息，从快照创建时首次访问才生成，volatile 保证其它线程看到的是填充完成的结构体 */
+  private volatile ResTableConfig config;
+  private final int configSize;
+  private final ResourceConfig resourceConfig;
+  private final EntryOffsets entryOffsets;
+  /** 按槽位排列的资源项，稀疏数据块只为存在的资源项分配槽位 */
+  private final ResourceEntry[] entries;
+  /** 延迟解码器，资源项已全部解码时为 null */
+  private final EntryDecoder decoder;
+
+  /**
+   * 资源项解码器，用于延迟解码。
+   */
+  public interface EntryDecoder {
+    /**
+     * @param entryIndex 资源项索引，对应的资源项一定存在。
+     * @return 解码后的资源项。
+     */
+    ResourceEntry decode(int entryIndex);
+
+    /**
+     * 只读取资源项头部中的名称，不解码资源项，用于建立名称索引。
+     *
+     * @param entryIndex 资源项索引，对应的资源项一定存在。
+     * @return 资源项名称。
+     */
+    String key(int entryIndex);
+  }
+
+  /**
+   * @param id           资源 Type ID。
+   * @param config       配置信息。
+   * @param entryOffsets 资源项偏移数组。
+   * @param entries      资源项，按 {@link EntryOffsets} 的槽位排列，不存在的资源项为 null，数组由本对象持有。
+   */
+  public ResourceType(int id, ResTableConfig config, EntryOffsets entryOffsets, ResourceEntry[] entries) {
+    if (entryOffsets.slotCount() != entries.length) {
+      throw new IllegalArgumentException("entry slot count " + entryOffsets.slotCount() +
+          " != entries length " + entries.length);
+    }
+
+    this.id = id;
+    this.config = config;
+    this.configSize = config.size;
+    this.resourceConfig = ResourceConfig.of(config);
+    this.entryOffsets = entryOffsets;
+    this.entries = entries;
+    this.decoder = null;
+  }
+
+  /**
+   * 创建延迟解码的类型，资源项在首次访问时解码。
+   *
+   * @param id           资源 Type ID。
+   * @param config       配置信息。
+   * @param entryOffsets 资源项偏移数组。
+   * @param decoder      资源项解码器。
+   */
+  public ResourceType(int id, ResTableConfig config, EntryOffsets entryOffsets, EntryDecoder decoder) {
+    if (decoder == null) {
+      throw new IllegalArgumentException("decoder == null");
+    }
+
+    this.id = id;
+    this.config = config;
+    this.configSize = config.size;
+    this.resourceConfig = ResourceConfig.of(config);
+    this.entryOffsets = entryOffsets;
+    this.entries = new ResourceEntry[entryOffsets.slotCount()];
+    this.decoder = decoder;
+  }
+
+  /*
+    从快照创建，配置信息在首次访问时由 resourceConfig 生成，不经过结构体解码。
+   */
+  ResourceType(int id, ResourceConfig resourceConfig, int configSize, EntryOffsets entryOffsets,
+               EntryDecoder decoder) {
+    this.id = id;
+    this.config = null;
+    this.configSize = configSize;
+    this.resourceConfig = resourceConfig;
+    this.entryOffsets = entryOffsets;
+    this.entries = new ResourceEntry[entryOffsets.slotCount()];
+    this.decoder = decoder;
+  }
+
+  /** 资源 Type ID */
+  public int id() {
+    return id;
+  }
+
+  /** 配置信息，不应修改 */
+  public ResTableConfig config() {
+    ResTableConfig result = config;
+    if (result == null) {
+      // 结构体在写入 volatile 字段前填充完成；并发时可能重复生成，内容相同。
+      result = resourceConfig.toTableConfig(configSize);
+      config = result;
+    }
+    return result;
+  }
+
+  /** 配置信息的大小，即 {@link ResTableConfig#size} */
+  int configSize() {
+    return configSize;
+  }
+
+  /** 用于配置匹配的资源配置 */
+  public ResourceConfig resourceConfig() {
+    return resourceConfig;
+  }
+
+  /** 资源项个数，包括该配置下不存在的资源项 */
+  public int entryCount() {
+    return entryOffsets.entryCount();
+  }
+
+  /** 资源项偏移数组 */
+  public EntryOffsets entryOffsets() {
+    return entryOffsets;
+  }
+
+  /**
+   * @param entryIndex 资源项索引。
+   * @return 该配置下是否存在资源项。
+   */
+  public boolean hasEntry(int entryIndex) {
+    return entryOffsets.slotOf(entryIndex) >= 0;
+  }
+
+  /**
+   * @param entryIndex 资源项索引。
+   * @return 资源项在类型数据块中相对资源项起始位置的偏移，不存在时为 {@link ResTableType#NO_ENTRY}。
+   */
+  public int entryOffset(int entryIndex) {
+    return entryOffsets.offset(entryIndex);
+  }
+
+  /**
+   * @param entryIndex 资源项索引。
+   * @return 资源项，不存在时返回 null。
+   */
+  public ResourceEntry entry(int entryIndex) {
+    final int slot = entryOffsets.slotOf(entryIndex);
+    if (slot < 0) {
+      return null;
+    }
+
+    ResourceEntry entry = entries[slot];
+    if (entry == null && decoder != null) {
+      entry = decoder.decode(entryIndex);
+      entries[slot] = entry;
+    }
+    return entry;
+  }
+
+  /**
+   * 资源项名称，延迟解码且资源项尚未解码时只读取名称，不解码也不缓存资源项。
+   *
+   * @param entryIndex 资源项索引。
+   * @return 资源项名称，不存在时返回 null。
+   */
+  public String key(int entryIndex) {
+    final int slot = entryOffsets.slotOf(entryIndex);
+    if (slot < 0) {
+      return null;
+    }
+
+    final ResourceEntry entry = entries[slot];
+    if (entry != null) {
+      return entry.key();
+    }
+    return decoder != null ? decoder.key(entryIndex) : null;
+  }
+
+  /** 是否延迟解码资源项 */
+  public boolean isLazy() {
+    return decoder != null;
+  }
+}
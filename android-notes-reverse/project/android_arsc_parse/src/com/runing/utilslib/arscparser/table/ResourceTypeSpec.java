@@ -0,0 +1,74 @@
+package com.runing.utilslib.arscparser.table;
+
+import com.runing.utilslib.arscparser.type.ResTableTypeSpec;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 类型规范，对应一个 {@link ResTableTypeSpec} 数据块，以及该类型在各个配置下的 {@link ResourceType}。
+ */
+public final class ResourceTypeSpec {
+
+  private final int id;
+  private final String name;
+  private final int[] specFlags;
+  private final List<ResourceType> types;
+  /** 按配置索引排列的类型资源项集合 */
+  private final ResourceType[] typeArray;
+
+  /**
+   * @param id        资源 Type ID。
+   * @param name      类型名称，例如 string。
+   * @param specFlags 每个资源项的配置变化掩码，数组由本对象持有。
+   * @param types     各个配置下的类型资源项集合。
+   */
+  public ResourceTypeSpec(int id, String name, int[] specFlags, List<ResourceType> types) {
+    this.id = id;
+    this.name = name;
+    this.specFlags = specFlags;
+    this.typeArray = types.toArray(new ResourceType[0]);
+    this.types = Collections.unmodifiableList(Arrays.asList(typeArray));
+  }
+
+  /** 资源 Type ID */
+  public int id() {
+    return id;
+  }
+
+  /** 类型名称 */
+  public String name() {
+    return name;
+  }
+
+  public int entryCount() {
+    return specFlags.length;
+  }
+
+  /**
+   * @param entryIndex 资源项索引。
+   * @return 资源项的配置变化掩码。
+   */
+  public int specFlags(int entryIndex) {
+    return specFlags[entryIndex];
+  }
+
+  /** 各个配置下的类型资源项集合，按文件中的顺序排列，下标即配置索引 */
+  public List<ResourceType> types() {
+    return types;
+  }
+
+  /** 配置数量 */
+  public int typeCount() {
+    return typeArray.length;
+  }
+
+  /**
+   * @param configIndex 配置索引，即类型数据块在 {@link #types()} 中的位置。
+   * @return 类型资源项集合，不存在时返回 null。
+   */
+  public ResourceType type(int configIndex) {
+    return configIndex >= 0 && configIndex < typeArray.length ? typeArray[configIndex] : null;
+  }
+}
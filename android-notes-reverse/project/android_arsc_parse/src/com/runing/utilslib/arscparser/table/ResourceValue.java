@@ -0,0 +1,59 @@
+package com.runing.utilslib.arscparser.table;
+
+import com.runing.utilslib.arscparser.type.ResValue;
+
+/**
+ * 资源值，对应 {@link ResValue} 中的数据类型和数据。
+ */
+public final class ResourceValue {
+
+  private final byte dataType;
+  private final int data;
+
+  public ResourceValue(byte dataType, int data) {
+    this.dataType = dataType;
+    this.data = data;
+  }
+
+  /** 数据类型，{@link ResValue#TYPE_NULL} 等 */
+  public byte dataType() {
+    return dataType;
+  }
+
+  /** 数据，含义由数据类型决定 */
+  public int data() {
+    return data;
+  }
+
+  public boolean isReference() {
+    return dataType == ResValue.TYPE_REFERENCE;
+  }
+
+  public boolean isString() {
+    return dataType == ResValue.TYPE_STRING;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+
+    if (!(o instanceof ResourceValue)) {
+      return false;
+    }
+
+    final ResourceValue that = (ResourceValue) o;
+    return dataType == that.dataType && data == that.data;
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * dataType + data;
+  }
+
+  @Override
+  public String toString() {
+    return ResValue.dataTypeStr(dataType) + ":" + ResValue.dataStr(dataType, data);
+  }
+}
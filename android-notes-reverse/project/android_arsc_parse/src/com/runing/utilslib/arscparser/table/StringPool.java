@@ -0,0 +1,122 @@
+package com.runing.utilslib.arscparser.table;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+
+/**
+ * 字符串池，可以直接持有已解码的字符串，也可以从快照中的 UTF-16 数据按需创建字符串并缓存。
+ * <p>
+ * 快照数据格式：int count，int[count + 1] 每个字符串在字符区的起始位置（以 char 为单位），之后是 UTF-16 字符区。
+ * 并发访问时同一字符串可能被重复创建，但结果相同。
+ */
+final class StringPool {
+
+  static final StringPool EMPTY = new StringPool(new String[0]);
+
+  private final String[] strings;
+  /** 快照中的字符区，字符串已全部解码时为 null */
+  private final CharBuffer chars;
+  /** 快照中的起始位置数组所在的缓冲区 */
+  private final ByteBuffer starts;
+  private final int startsOffset;
+
+  StringPool(String[] strings) {
+    this.strings = strings;
+    this.chars = null;
+    this.starts = null;
+    this.startsOffset = 0;
+  }
+
+  private StringPool(ByteBuffer buffer, int offset, int count) {
+    this.strings = new String[count];
+    this.starts = buffer;
+    this.startsOffset = offset + Integer.BYTES;
+
+    final int charsOffset = startsOffset + (count + 1) * Integer.BYTES;
+    final ByteBuffer charBytes = buffer.duplicate();
+    charBytes.position(charsOffset);
+    this.chars = charBytes.slice().order(buffer.order()).asCharBuffer();
+  }
+
+  /**
+   * @param buffer 快照数据。
+   * @param offset 字符串池在快照中的位置。
+   * @return 按需创建字符串的字符串池。
+   */
+  static StringPool map(ByteBuffer buffer, int offset) {
+    return new StringPool(buffer, offset, buffer.getInt(offset));
+  }
+
+  /**
+   * @return 快照中字符串池的字节数，按 4 字节对齐。
+   */
+  static int mappedSize(ByteBuffer buffer, int offset) {
+    final int count = buffer.getInt(offset);
+    final int charCount = buffer.getInt(offset + Integer.BYTES + count * Integer.BYTES);
+    return align(Integer.BYTES + (count + 1) * Integer.BYTES + charCount * Character.BYTES);
+  }
+
+  /**
+   * 按快照数据格式写入字符串池，按 4 字节对齐。
+   */
+  void write(ByteBuffer buffer) {
+    final int start = buffer.position();
+    buffer.putInt(size());
+
+    int charCount = 0;
+    for (int i = 0; i < size(); i++) {
+      buffer.putInt(charCount);
+      final String string = get(i);
+      charCount += string != null ? string.length() : 0;
+    }
+    buffer.putInt(charCount);
+
+    for (int i = 0; i < size(); i++) {
+      final String string = get(i);
+      if (string != null) {
+        for (int j = 0; j < string.length(); j++) {
+          buffer.putChar(string.charAt(j));
+        }
+      }
+    }
+
+    buffer.position(start + align(buffer.position() - start));
+  }
+
+  /**
+   * @return {@link #write(ByteBuffer)} 写入的字节数。
+   */
+  int writtenSize() {
+    int charCount = 0;
+    for (int i = 0; i < size(); i++) {
+      final String string = get(i);
+      charCount += string != null ? string.length() : 0;
+    }
+    return align(Integer.BYTES + (size() + 1) * Integer.BYTES + charCount * Character.BYTES);
+  }
+
+  int size() {
+    return strings.length;
+  }
+
+  String get(int index) {
+    String string = strings[index];
+    if (string == null && chars != null) {
+      final int start = starts.getInt(startsOffset + index * Integer.BYTES);
+      final int end = starts.getInt(startsOffset + (index + 1) * Integer.BYTES);
+
+      final char[] value = new char[end - start];
+      final CharBuffer source = chars.duplicate();
+      source.position(start);
+      source.get(value);
+
+      string = new String(value);
+      strings[index] = string;
+    }
+    return string;
+  }
+
+  static int align(int size) {
+    return (size + 3) & ~3;
+  }
+}
@@ -269,8 +269,8 @@ public class ResTableConfig implements Struct {
 
   public static class MobileConfig implements Union {
     public static class Type implements Struct {
-      public short mcc;
-      public short mnc;
+      @FieldOrder(n = 0) public short mcc;
+      @FieldOrder(n = 1) public short mnc;
 
       @Override
       public String toString() {
@@ -287,8 +287,8 @@ public class ResTableConfig implements Struct {
       }
     }
 
-    public Type data;
-    public int imsi;
+    @FieldOrder(n = 0) public Type data;
+    @FieldOrder(n = 1) public int imsi;
 
     @Override
     public String toString() {
@@ -308,8 +308,8 @@ public class ResTableConfig implements Struct {
   public static class LocaleConfig implements Union {
 
     public static class Type implements Struct {
-      public char[] language = new char[2];
-      public char[] country = new char[2];
+      @FieldOrder(n = 0) public char[] language = new char[2];
+      @FieldOrder(n = 1) public char[] country = new char[2];
 
       @Override
       public String toString() {
@@ -325,8 +325,8 @@ public class ResTableConfig implements Struct {
                 '}';
       }
     }
-    public Type data;
-    public int locale;
+    @FieldOrder(n = 0) public Type data;
+    @FieldOrder(n = 1) public int locale;
 
     @Override
     public String toString() {
@@ -362,14 +362,14 @@ public class ResTableConfig implements Struct {
   public static final int DENSITY_XXHIGH = 480;
   public static final int DENSITY_XXXHIGH = 640;
   public static final int DENSITY_ANY = 0xfffe;
-  public static final int DENSITY_NONE = 0xfff;
+  public static final int DENSITY_NONE = 0xffff;
 
   public static class ScreenTypeConfig implements Union {
 
     public static class Type implements Struct {
-      public byte orientation;
-      public byte touchscreen;
-      public short density;
+      @FieldOrder(n = 0) public byte orientation;
+      @FieldOrder(n = 1) public byte touchscreen;
+      @FieldOrder(n = 2) public short density;
 
       @Override
       public String toString() {
@@ -387,8 +387,8 @@ public class ResTableConfig implements Struct {
                 '}';
       }
     }
-    public Type data;
-    public int screenType;
+    @FieldOrder(n = 0) public Type data;
+    @FieldOrder(n = 1) public int screenType;
 
     @Override
     public String toString() {
@@ -430,10 +430,10 @@ public class ResTableConfig implements Struct {
 
   public static class InputConfig implements Union {
     public static class Type implements Struct {
-      public byte keyboard;
-      public byte navigation;
-      public byte inputFlags;
-      public byte inputPad0;
+      @FieldOrder(n = 0) public byte keyboard;
+      @FieldOrder(n = 1) public byte navigation;
+      @FieldOrder(n = 2) public byte inputFlags;
+      @FieldOrder(n = 3) public byte inputPad0;
 
       @Override
       public String toString() {
@@ -454,8 +454,8 @@ public class ResTableConfig implements Struct {
       }
     }
 
-    public Type data;
-    public int input;
+    @FieldOrder(n = 0) public Type data;
+    @FieldOrder(n = 1) public int input;
 
     @Override
     public String toString() {
@@ -477,8 +477,8 @@ public class ResTableConfig implements Struct {
 
   public static class ScreenSizeConfig implements Union {
     public static class Type implements Struct {
-      public short screenWidth;
-      public short screenHeight;
+      @FieldOrder(n = 0) public short screenWidth;
+      @FieldOrder(n = 1) public short screenHeight;
 
       @Override
       public String toString() {
@@ -495,8 +495,8 @@ public class ResTableConfig implements Struct {
       }
     }
 
-    public Type data;
-    public int screenSize;
+    @FieldOrder(n = 0) public Type data;
+    @FieldOrder(n = 1) public int screenSize;
 
     @Override
     public String toString() {
@@ -518,8 +518,8 @@ public class ResTableConfig implements Struct {
 
   public static class VersionConfig implements Union {
     public static class Type implements Struct {
-      public short sdkVersion;
-      public short minorVersion;
+      @FieldOrder(n = 0) public short sdkVersion;
+      @FieldOrder(n = 1) public short minorVersion;
 
       @Override
       public String toString() {
@@ -536,8 +536,8 @@ public class ResTableConfig implements Struct {
       }
     }
 
-    public Type data;
-    public int screenSize;
+    @FieldOrder(n = 0) public Type data;
+    @FieldOrder(n = 1) public int screenSize;
 
     @Override
     public String toString() {
@@ -585,16 +585,36 @@ public class ResTableConfig implements Struct {
   public static final int MASK_UI_MODE_NIGHT = 0x30;
   public static final int SHIFT_UI_MODE_NIGHT = 4;
   public static final int UI_MODE_NIGHT_ANY = 0x00;
-  public static final int UI_MODE_NIGHT_NO = 0x1;
-  public static final int UI_MODE_NIGHT_YES = 0x2;
+  public static final int UI_MODE_NIGHT_NO = 0x01 << SHIFT_UI_MODE_NIGHT;
+  public static final int UI_MODE_NIGHT_YES = 0x02 << SHIFT_UI_MODE_NIGHT;
+
+  /*
+    配置变化的维度，ResTable_typeSpec 中每个资源项的掩码由这些位组成。
+   */
+  public static final int CONFIG_MCC = 0x0001;
+  public static final int CONFIG_MNC = 0x0002;
+  public static final int CONFIG_LOCALE = 0x0004;
+  public static final int CONFIG_TOUCHSCREEN = 0x0008;
+  public static final int CONFIG_KEYBOARD = 0x0010;
+  public static final int CONFIG_KEYBOARD_HIDDEN = 0x0020;
+  public static final int CONFIG_NAVIGATION = 0x0040;
+  public static final int CONFIG_ORIENTATION = 0x0080;
+  public static final int CONFIG_DENSITY = 0x0100;
+  public static final int CONFIG_SCREEN_SIZE = 0x0200;
+  public static final int CONFIG_VERSION = 0x0400;
+  public static final int CONFIG_SCREEN_LAYOUT = 0x0800;
+  public static final int CONFIG_UI_MODE = 0x1000;
+  public static final int CONFIG_SMALLEST_SCREEN_SIZE = 0x2000;
+  public static final int CONFIG_LAYOUTDIR = 0x4000;
+  public static final int CONFIG_SCREEN_ROUND = 0x8000;
+  public static final int CONFIG_COLOR_MODE = 0x10000;
 
   public static class ScreenConfig implements Union {
 
     public static class Type implements Struct {
-      public byte screenLayout;
-      public byte uiMode;
-      public byte screenConfigPad1;
-      public byte screenConfigPad2;
+      @FieldOrder(n = 0) public byte screenLayout;
+      @FieldOrder(n = 1) public byte uiMode;
+      @FieldOrder(n = 2) public short smallestScreenWidthDp;
 
       @Override
       public String toString() {
@@ -602,21 +622,19 @@ public class ResTableConfig implements Struct {
             "{" +
                 "screenLayout=" + screenLayout +
                 ", uiMode=" + uiMode +
-                ", screenConfigPad1=" + screenConfigPad1 +
-                ", screenConfigPad2=" + screenConfigPad2 +
+                ", smallestScreenWidthDp=" + smallestScreenWidthDp +
                 '}'
             :
             "Struct{" +
                 "screenLayout=" + screenLayout +
                 ", uiMode=" + uiMode +
-                ", screenConfigPad1=" + screenConfigPad1 +
-                ", screenConfigPad2=" + screenConfigPad2 +
+                ", smallestScreenWidthDp=" + smallestScreenWidthDp +
                 '}';
       }
     }
 
-    public Type data;
-    public int screenConfig;
+    @FieldOrder(n = 0) public Type data;
+    @FieldOrder(n = 1) public int screenConfig;
 
     @Override
     public String toString() {
@@ -636,8 +654,8 @@ public class ResTableConfig implements Struct {
   public static class ScreenSizeDpConfig implements Union {
 
     public static class Type implements Struct {
-      public short screenWidth;
-      public short screenHeight;
+      @FieldOrder(n = 0) public short screenWidth;
+      @FieldOrder(n = 1) public short screenHeight;
 
       @Override
       public String toString() {
@@ -654,8 +672,8 @@ public class ResTableConfig implements Struct {
       }
     }
 
-    public Type data;
-    public int screenSizeDp;
+    @FieldOrder(n = 0) public Type data;
+    @FieldOrder(n = 1) public int screenSizeDp;
 
     @Override
     public String toString() {
@@ -672,26 +690,26 @@ public class ResTableConfig implements Struct {
     }
   }
 
-  public MobileConfig mobileConfig;
-  public LocaleConfig localeConfig;
-  public ScreenTypeConfig screenTypeConfig;
-  public InputConfig inputConfig;
-  public ScreenSizeConfig screenSizeConfig;
-  public VersionConfig versionConfig;
-  public ScreenConfig screenConfig;
-  public ScreenSizeDpConfig screenSizeDpConfig;
+  @FieldOrder(n = 1) public MobileConfig mobileConfig;
+  @FieldOrder(n = 2) public LocaleConfig localeConfig;
+  @FieldOrder(n = 3) public ScreenTypeConfig screenTypeConfig;
+  @FieldOrder(n = 4) public InputConfig inputConfig;
+  @FieldOrder(n = 5) public ScreenSizeConfig screenSizeConfig;
+  @FieldOrder(n = 6) public VersionConfig versionConfig;
+  @FieldOrder(n = 7) public ScreenConfig screenConfig;
+  @FieldOrder(n = 8) public ScreenSizeDpConfig screenSizeDpConfig;
 
-  public char[] localeScript = new char[4];
-  public char[] localeVariant = new char[8];
+  @FieldOrder(n = 9) public char[] localeScript = new char[4];
+  @FieldOrder(n = 10) public char[] localeVariant = new char[8];
 
-  public ScreenConfig2 screenConfig2;
+  @FieldOrder(n = 11) public ScreenConfig2 screenConfig2;
 
   public static class ScreenConfig2 implements Union {
 
     public static class Type implements Struct {
-      public byte screenLayout2;
-      public byte screenConfigPad1;
-      public short screenConfigPad2;
+      @FieldOrder(n = 0) public byte screenLayout2;
+      @FieldOrder(n = 1) public byte screenConfigPad1;
+      @FieldOrder(n = 2) public short screenConfigPad2;
 
       @Override
       public String toString() {
@@ -710,8 +728,8 @@ public class ResTableConfig implements Struct {
       }
     }
 
-    public Type data;
-    public int screenConfig2;
+    @FieldOrder(n = 0) public Type data;
+    @FieldOrder(n = 1) public int screenConfig2;
 
     @Override
     public String toString() {
@@ -0,0 +1,41 @@
+package com.runing.utilslib.arscparser.type;
+
+/*
+struct ResTable_lib_entry
+{
+    // The package-id this shared library was assigned at build time.
+    // We use a uint32 to keep the structure aligned on a uint32 boundary.
+    uint32_t packageId;
+
+    // The package name of the shared library. \0 terminated.
+    uint16_t packageName[128];
+};
+ */
+
+import com.runing.utilslib.arscparser.util.Formatter;
+import com.runing.utilslib.arscparser.util.objectio.FieldOrder;
+import com.runing.utilslib.arscparser.util.objectio.Struct;
+
+/**
+ * 共享库信息，编译时分配的 Package ID 与共享库包名的对应关系。
+ */
+public class ResTableLibEntry implements Struct {
+  /** 共享库编译时分配的 Package ID */
+  @FieldOrder(n = 0) public int packageId;
+  /** 共享库包名，char16_t，以 \0 结尾 */
+  @FieldOrder(n = 1) public short[] packageName = new short[128];
+
+  @Override
+  public String toString() {
+    return Config.BEAUTIFUL ?
+        "{" +
+            "packageId=" + Formatter.toHex(Formatter.fromInt(packageId, false)) +
+            ", packageName=" + Formatter.fromUtf16(packageName) +
+            '}'
+        :
+        "ResTableLibEntry{" +
+            "packageId=" + packageId +
+            ", packageName=" + Formatter.fromUtf16(packageName) +
+            '}';
+  }
+}
@@ -0,0 +1,44 @@
+package com.runing.utilslib.arscparser.type;
+
+/*
+struct ResTable_lib_header
+{
+    struct ResChunk_header header;
+
+    // The number of shared libraries linked in this resource table.
+    uint32_t count;
+};
+ */
+
+import com.runing.utilslib.arscparser.util.objectio.FieldOrder;
+import com.runing.utilslib.arscparser.util.objectio.Struct;
+
+/**
+ * 共享库数据块头部，记录资源包引用的共享库，之后紧跟 {@link #count} 个 {@link ResTableLibEntry}。
+ */
+public class ResTableLibHeader implements Struct {
+  /**
+   * {@link ResChunkHeader#type} = {@link ResourceTypes#RES_TABLE_LIBRARY_TYPE}
+   * <p>
+   * {@link ResChunkHeader#headerSize} = sizeOf(ResTableLibHeader.class) 表示头部大小。
+   * <p>
+   * {@link ResChunkHeader#size} = header.headerSize + sizeOf(ResTableLibEntry.class) * {@link #count}
+   */
+  @FieldOrder(n = 0) public ResChunkHeader header;
+  /** 共享库个数 */
+  @FieldOrder(n = 1) public int count;
+
+  @Override
+  public String toString() {
+    return Config.BEAUTIFUL ?
+        "{" +
+            "header=" + header +
+            ", count=" + count +
+            '}'
+        :
+        "ResTableLibHeader{" +
+            "header=" + header +
+            ", count=" + count +
+            '}';
+  }
+}
@@ -50,8 +50,8 @@ public class ResTablePackage implements Struct {
   @FieldOrder(n = 0) public ResChunkHeader header;
   /** Package ID */
   @FieldOrder(n = 1) public int id;
-  /** Package Name */
-  @FieldOrder(n = 2) public char[] name = new char[128];
+  /** Package Name，char16_t，以 \0 结尾 */
+  @FieldOrder(n = 2) public short[] name = new short[128];
   /**
    * 类型字符串资源池相对头部的偏移位置。
    */
@@ -75,7 +75,7 @@ public class ResTablePackage implements Struct {
         "{" +
             "header=" + header +
             ", id=" + Formatter.toHex(Formatter.fromInt(id, false)) +
-            ", name=" + Formatter.trim(new String(name)) +
+            ", name=" + Formatter.fromUtf16(name) +
             ", typeStrings=" + typeStrings +
             ", lastPublicType=" + lastPublicType +
             ", keyStrings=" + keyStrings +
@@ -85,7 +85,7 @@ public class ResTablePackage implements Struct {
         "ResTablePackage{" +
             "header=" + header +
             ", id=" + id +
-            ", name=" + Formatter.trim(new String(name)) +
+            ", name=" + Formatter.fromUtf16(name) +
             ", typeStrings=" + typeStrings +
             ", lastPublicType=" + lastPublicType +
             ", keyStrings=" + keyStrings +
@@ -14,8 +14,19 @@ struct ResTable_type
     // resource identifier).  0 is invalid.
     uint8_t id;
 
-    // Must be 0.
-    uint8_t res0;
+    enum {
+        // If set, the entry is sparse, and encodes both the entry ID and offset into each entry,
+        // and a binary search is used to find the key. Only available on platforms >= O.
+        // Mark any types that use this with a v26 qualifier to prevent runtime issues on older
+        // platforms.
+        FLAG_SPARSE = 0x01,
+
+        // If set, the offsets to the entries are encoded in 16-bit, real_offset = offset * 4u
+        // An 16-bit offset of 0xffffu means a NO_ENTRY
+        FLAG_OFFSET16 = 0x02,
+    };
+    uint8_t flags;
+
     // Must be 0.
     uint16_t res1;
 
@@ -39,19 +50,23 @@ import com.runing.utilslib.arscparser.util.objectio.FieldOrder;
  */
 public class ResTableType implements Struct {
   public static final int NO_ENTRY = 0xFFFFFFFF;
+  /** 稀疏编码，偏移数组为 (uint16_t 索引, uint16_t 偏移 / 4) 对，{@link #entryCount} 为存在的资源项个数 */
+  public static final int FLAG_SPARSE = 0x01;
+  /** 偏移为 uint16_t，实际偏移 = 值 * 4，0xFFFF 表示不存在 */
+  public static final int FLAG_OFFSET16 = 0x02;
 
   /**
    * {@link ResChunkHeader#type} = {@link ResourceTypes#RES_TABLE_TYPE_TYPE}
    * <p>
    * {@link ResChunkHeader#headerSize} = sizeOf(ResTableType.class) 表示头部大小。
    * <p>
-   * {@link ResChunkHeader#size} = header.headerSize + {@link Integer#BYTES} * {@link #entryCount}
+   * {@link ResChunkHeader#size} = header.headerSize + 偏移数组大小 + 资源项数据大小
    */
   @FieldOrder(n = 0) public ResChunkHeader header;
   /** 资源 Type ID */
   @FieldOrder(n = 1) public byte id;
-  /** 0，保留 */
-  @FieldOrder(n = 2) public byte res0;
+  /** 偏移数组编码标志，{@link #FLAG_SPARSE}、{@link #FLAG_OFFSET16}，旧版本中为保留字段 res0 */
+  @FieldOrder(n = 2) public byte flags;
   /** 0，保留 */
   @FieldOrder(n = 3) public short res1;
   /** 本类型的资源项个数，即名称相同的资源项的个数 */
@@ -67,7 +82,7 @@ public class ResTableType implements Struct {
         "{" +
             "header=" + header +
             ", id=" + Formatter.toHex(new byte[]{id}) +
-            ", res0=" + res0 +
+            ", flags=" + flags +
             ", res1=" + res1 +
             ", entryCount=" + entryCount +
             ", entriesStart=" + entriesStart +
@@ -77,7 +92,7 @@ public class ResTableType implements Struct {
         "ResTableType{" +
             "header=" + header +
             ", id=" + id +
-            ", res0=" + res0 +
+            ", flags=" + flags +
             ", res1=" + res1 +
             ", entryCount=" + entryCount +
             ", entriesStart=" + entriesStart +
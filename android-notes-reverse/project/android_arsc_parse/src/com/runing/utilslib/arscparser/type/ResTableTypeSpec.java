@@ -33,7 +33,9 @@ import com.runing.utilslib.arscparser.util.objectio.Struct;
  * 类型规范数据块。
  */
 public class ResTableTypeSpec implements Struct {
-  private static final int SPEC_PUBLIC = 0x40000000;
+  /** 资源项是公开的，与配置变化掩码位于同一个 uint32_t 中 */
+  public static final int SPEC_PUBLIC = 0x40000000;
+
   /**
    * {@link ResChunkHeader#type} = {@link ResourceTypes#RES_TABLE_TYPE_SPEC_TYPE}
    * <p>
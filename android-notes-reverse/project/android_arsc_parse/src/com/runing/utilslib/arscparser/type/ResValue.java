@@ -184,6 +184,16 @@ public class ResValue implements Struct {
   @FieldOrder(n = 3) public int data;
 
   private String dataTypeStr() {
+    return dataTypeStr(dataType);
+  }
+
+  /**
+   * 数据类型名称。
+   *
+   * @param dataType 数据类型。
+   * @return 数据类型名称。
+   */
+  public static String dataTypeStr(byte dataType) {
     switch (dataType) {
       case TYPE_NULL:
         return "TYPE_NULL";
@@ -224,8 +234,19 @@ public class ResValue implements Struct {
     }
   }
 
-  @SuppressWarnings("DuplicateBranchesInSwitch")
   public String dataStr() {
+    return dataStr(dataType, data);
+  }
+
+  /**
+   * 按数据类型格式化数据。
+   *
+   * @param dataType 数据类型。
+   * @param data     数据。
+   * @return 格式化后的数据。
+   */
+  @SuppressWarnings("DuplicateBranchesInSwitch")
+  public static String dataStr(byte dataType, int data) {
     switch (dataType) {
       case TYPE_NULL:
         return "null";
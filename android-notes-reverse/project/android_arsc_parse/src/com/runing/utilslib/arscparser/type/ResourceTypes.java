@@ -55,6 +55,8 @@ public class ResourceTypes {
         return "RES_TABLE_TYPE_TYPE";
       case RES_TABLE_TYPE_SPEC_TYPE:
         return "RES_TABLE_TYPE_SPEC_TYPE";
+      case RES_TABLE_LIBRARY_TYPE:
+        return "RES_TABLE_LIBRARY_TYPE";
       default:
         return "UNKNOWN";
     }
@@ -30,6 +30,22 @@ public class Formatter {
         };
   }
 
+  /**
+   * 将以 \0 结尾的 UTF-16 字符数组转换为字符串。
+   */
+  public static String fromUtf16(short[] chars) {
+    int length = 0;
+    while (length < chars.length && chars[length] != 0) {
+      length++;
+    }
+
+    final char[] result = new char[length];
+    for (int i = 0; i < length; i++) {
+      result[i] = (char) chars[i];
+    }
+    return new String(result);
+  }
+
   public static String trim(String str) {
     final char[] chars = str.toCharArray();
     int i = 0;
@@ -0,0 +1,185 @@
+package com.runing.utilslib.arscparser.util.objectio;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * 基于内存数据的结构化输入，可包装 byte[]、ByteBuffer 或完整读取的 InputStream，
+ * 例如直接解析 APK 中的 resources.arsc 或 AndroidManifest.xml，无需先解压到临时文件。
+ * <p>
+ * 所有读取均为缓冲区上的绝对读取，不改变缓冲区状态，可被多个线程共享。
+ */
+public class BufferInput implements StructInput {
+
+  private final ByteBuffer buffer;
+  private final long size;
+  /** 结构体解码器的固定字节序，为 null 时优先使用生成的编解码器，否则使用按缓冲区字节序读取的解码器 */
+  private final ByteOrder decoderOrder;
+
+  public BufferInput(byte[] data, boolean bigEndian) {
+    this(ByteBuffer.wrap(data), bigEndian);
+  }
+
+  /**
+   * @param buffer    数据缓冲区，偏移量 0 对应其当前 position，数据截止到其 limit。
+   * @param bigEndian 是否为大端字节序。
+   */
+  public BufferInput(ByteBuffer buffer, boolean bigEndian) {
+    this(buffer, bigEndian, false);
+  }
+
+  /**
+   * @param varHandles 为 true 时结构体通过 {@link VarHandleReaders} 解码。
+   */
+  BufferInput(ByteBuffer buffer, boolean bigEndian, boolean varHandles) {
+    this.buffer = buffer.slice();
+    this.buffer.order(bigEndian ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
+    this.size = this.buffer.limit();
+    this.decoderOrder = varHandles ? this.buffer.order() : null;
+  }
+
+  /**
+   * 读取输入流的全部剩余数据，输入流不会被关闭。
+   *
+   * @param in        输入流。
+   * @param bigEndian 是否为大端字节序。
+   * @throws IOException 可能出现的 io 异常。
+   */
+  public BufferInput(InputStream in, boolean bigEndian) throws IOException {
+    this(readFully(in), bigEndian);
+  }
+
+  private static byte[] readFully(InputStream in) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(in.available(), 8192));
+    byte[] block = new byte[8192];
+    int length;
+    while ((length = in.read(block)) != -1) {
+      out.write(block, 0, length);
+    }
+    return out.toByteArray();
+  }
+
+  @Override
+  public <T extends Struct> T read(Class<T> target, long offset) throws IOException {
+    // 优先使用编译期生成的编解码器。
+    final StructCodec<T> codec = decoderOrder == null ? StructCodecs.of(target) : null;
+    if (codec != null) {
+      return read(codec, offset);
+    }
+
+    ObjectInput.ClassUtils.checkSupportType(target);
+
+    try {
+      return StructDecoder.of(target, decoderOrder).decode(buffer, (int) offset);
+    } catch (Exception e) {
+      throw new IOException("read error", e);
+    }
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T extends Struct> T read(T object, long offset) throws IOException {
+    final Class<T> target = (Class<T>) object.getClass();
+    final StructCodec<T> codec = decoderOrder == null ? StructCodecs.of(target) : null;
+
+    try {
+      return codec != null ?
+          codec.decode(buffer, (int) offset, object) :
+          StructDecoder.of(target, decoderOrder).decode(object, buffer, (int) offset);
+    } catch (Exception e) {
+      throw new IOException("read error", e);
+    }
+  }
+
+  @Override
+  public <T> T read(StructCodec<T> codec, long offset) throws IOException {
+    try {
+      return codec.decode(buffer, (int) offset);
+    } catch (Exception e) {
+      throw new IOException("read error", e);
+    }
+  }
+
+  @Override
+  public byte readByte(long offset) {
+    return buffer.get((int) offset);
+  }
+
+  @Override
+  public byte[] readBytes(long offset, int size) {
+    return readByteArray(offset, size);
+  }
+
+  @Override
+  public char readChar(long offset) {
+    return buffer.getChar((int) offset);
+  }
+
+  @Override
+  public short readShort(long offset) {
+    return buffer.getShort((int) offset);
+  }
+
+  @Override
+  public int readInt(long offset) {
+    return buffer.getInt((int) offset);
+  }
+
+  @Override
+  public long readLong(long offset) {
+    return buffer.getLong((int) offset);
+  }
+
+  @Override
+  public byte[] readByteArray(long offset, int count) {
+    byte[] array = new byte[count];
+    view(offset, count).get(array);
+    return array;
+  }
+
+  @Override
+  public short[] readShortArray(long offset, int count) {
+    short[] array = new short[count];
+    view(offset, count * Short.BYTES).asShortBuffer().get(array);
+    return array;
+  }
+
+  @Override
+  public int[] readIntArray(long offset, int count) {
+    int[] array = new int[count];
+    view(offset, count * Integer.BYTES).asIntBuffer().get(array);
+    return array;
+  }
+
+  @Override
+  public ByteBuffer readBuffer(long offset, int size) {
+    return view(offset, size).slice().order(buffer.order());
+  }
+
+  /*
+    返回 position 指向 offset、剩余 byteCount 字节、已设置字节序的视图。
+   */
+  private ByteBuffer view(long offset, int byteCount) {
+    ByteBuffer view = buffer.duplicate();
+    view.position((int) offset);
+    view.limit((int) offset + byteCount);
+    return view.order(buffer.order());
+  }
+
+  @Override
+  public boolean isEof(long offset) {
+    return offset >= size;
+  }
+
+  @Override
+  public long size() {
+    return size;
+  }
+
+  @Override
+  public void close() {
+  }
+}
@@ -1,118 +1,96 @@
 package com.runing.utilslib.arscparser.util.objectio;
 
-import java.io.Closeable;
 import java.io.FileInputStream;
 import java.io.IOException;
-import java.lang.reflect.Array;
-import java.lang.reflect.Field;
-import java.lang.reflect.Modifier;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
-import java.util.*;
 
 /**
  * 对象输入，提供了一种从文件中解析各种文件格式的通用方法，与 ObjectTOutput 配合使用。
  * <p>
  * 接口借鉴 C 语言中的 read 函数用法。
+ * <p>
+ * 通道模式下所有读取复用同一个内部缓冲区，不是线程安全的；内存映射模式下所有读取均为绝对读取，可被多个线程共享。
+ *
+ * @see BufferInput
  */
 @SuppressWarnings("ALL")
-public class ObjectInput implements Closeable {
+public class ObjectInput implements StructInput {
 
   private ByteOrder byteOrder;
   private final FileChannel inputChannel;
+  /** 内存映射模式下基于整个文件只读映射的输入，通道模式下为 null */
+  private final BufferInput mappedInput;
   private final long size;
+  /** 通道模式下复用的读取缓冲区 */
+  private ByteBuffer scratchBuffer;
 
   /*
     构建类内部成员列表。
    */
   public ObjectInput(String file) throws IOException {
-    inputChannel = new FileInputStream(file).getChannel();
-    size = inputChannel.size();
+    this(file, false);
   }
 
   public ObjectInput(String file, boolean bigEndian) throws IOException {
-    this(file);
-    this.byteOrder = bigEndian ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+    this(file, bigEndian, false);
   }
 
-  @SuppressWarnings("unchecked")
-  private <T> T fromByteBuffer(Class<T> target, ByteBuffer byteBuffer, int offset) throws Exception {
-    // 处理基本类型。
-    if (target == byte.class || target == Byte.class) {
-      return (T) Byte.valueOf(byteBuffer.get(offset));
-    }
+  /**
+   * @param file      文件路径。
+   * @param bigEndian 是否为大端字节序。
+   * @param mapped    为 true 时将整个文件映射为一个只读 {@link MappedByteBuffer}，所有读取均为缓冲区上的绝对读取；
+   *                  为 false 时使用通道模式，每次读取都通过 {@link FileChannel#read(ByteBuffer, long)} 完成。
+   * @throws IOException 可能出现的 io 异常。
+   */
+  public ObjectInput(String file, boolean bigEndian, boolean mapped) throws IOException {
+    this.byteOrder = bigEndian ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
 
-    if (target == char.class || target == Character.class) {
-      return (T) Character.valueOf((char) byteBuffer.get(offset));
-    }
+    final FileChannel channel = new FileInputStream(file).getChannel();
+    size = channel.size();
 
-    if (target == short.class || target == Short.class) {
-      return (T) Short.valueOf(byteBuffer.getShort(offset));
+    if (!mapped) {
+      inputChannel = channel;
+      mappedInput = null;
+      return;
     }
 
-    if (target == int.class || target == Integer.class) {
-      return (T) Integer.valueOf(byteBuffer.getInt(offset));
-    }
+    try {
+      if (size > Integer.MAX_VALUE) {
+        throw new IOException("file too large to map: " + file);
+      }
 
-    if (target == long.class || target == Long.class) {
-      return (T) Long.valueOf(byteBuffer.getLong(offset));
+      final MappedByteBuffer mappedBuffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+      mappedInput = new BufferInput(mappedBuffer, bigEndian);
+    } finally {
+      // 映射建立后不再依赖通道。
+      channel.close();
     }
 
-    // 处理 Struct 和 Union 类型。
-    final boolean isUnion = ClassUtils.isUnion(target);
-    if (ClassUtils.isStruct(target) || isUnion) {
-      T object = ClassUtils.newObject(target);
-
-      int index = offset;
-      Field[] fieldInfoList = ClassUtils.fullDeclaredFields(target);
-      for (Field field : fieldInfoList) {
-        final Class<?> fieldType = field.getType();
-
-        if (Modifier.isStatic(field.getModifiers())) {
-          continue;
-        }
-
-        if (!field.isAccessible()) {
-          field.setAccessible(true);
-        }
-
-        // 处理数组成员类型。
-        if (fieldType.isArray()) {
-          final Class<?> componentType = field.getType().getComponentType();
-
-          final int length = ClassUtils.getArrayFieldLength(field, target);
-          Object arrayField = Array.newInstance(componentType, length);
-          final int componentTypeSize = ClassUtils.sizeOf(componentType);
-
-          for (int i = 0; i < length; i++) {
-            Object item = fromByteBuffer(componentType, byteBuffer, index);
-            Array.set(arrayField, i, item);
-            index += componentTypeSize;
-          }
-
-          field.set(object, arrayField);
-          continue;
-        }
-
-        ClassUtils.checkSupportType(fieldType);
-
-        // 非数组递归解析。
-        final int fieldTypeSize = ClassUtils.sizeOf(fieldType);
+    inputChannel = null;
+  }
 
-        Object fieldObj = fromByteBuffer(fieldType, byteBuffer, index);
-        field.set(object, fieldObj);
+  /**
+   * 是否为内存映射模式。
+   */
+  public boolean isMapped() {
+    return mappedInput != null;
+  }
 
-        // Union 由于成员共用内存，所以需要从头读取。
-        if (!isUnion) {
-          index += fieldTypeSize;
-        }
-      }
-      return object;
+  /*
+    返回清空后限制为 size 大小的复用缓冲区，容量不足时重新分配。
+   */
+  private ByteBuffer scratch(int size) {
+    if (scratchBuffer == null || scratchBuffer.capacity() < size) {
+      scratchBuffer = ByteBuffer.allocate(Math.max(size, Long.BYTES));
+      scratchBuffer.order(byteOrder);
     }
 
-    throw new IllegalArgumentException("Not a struct or union type: " + target);
-
+    scratchBuffer.clear();
+    scratchBuffer.limit(size);
+    return scratchBuffer;
   }
 
   /**
@@ -124,7 +102,18 @@ public class ObjectInput implements Closeable {
    * @return 目标类型解析结果对象。
    * @throws IOException 可能出现的 io 异常。
    */
+  @Override
   public <T extends Struct> T read(Class<T> target, long offset) throws IOException {
+    if (mappedInput != null) {
+      return mappedInput.read(target, offset);
+    }
+
+    // 优先使用编译期生成的编解码器。
+    final StructCodec<T> codec = StructCodecs.of(target);
+    if (codec != null) {
+      return read(codec, offset);
+    }
+
     ClassUtils.checkSupportType(target);
 
     final int size;
@@ -134,177 +123,255 @@ public class ObjectInput implements Closeable {
       throw new IllegalArgumentException("object size is null.", e);
     }
 
-    final ByteBuffer byteBuffer = ByteBuffer.allocate(size);
-    byteBuffer.order(byteOrder);
+    final StructDecoder<T> decoder = StructDecoder.of(target);
+
+    final ByteBuffer byteBuffer = scratch(size);
     inputChannel.read(byteBuffer, offset);
     byteBuffer.flip();
 
     try {
-      return fromByteBuffer(target, byteBuffer, 0);
+      return decoder.decode(byteBuffer, 0);
     } catch (Exception e) {
       throw new IOException("read error", e);
     }
   }
 
+  /**
+   * 从文件中将数据解析到已有对象中，嵌套的结构体成员和数组成员同样原地复用。
+   *
+   * @param object 复用的对象。
+   * @param offset 文件偏移量。
+   * @param <T>    目标类型的泛型。
+   * @return object。
+   * @throws IOException 可能出现的 io 异常。
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T extends Struct> T read(T object, long offset) throws IOException {
+    if (mappedInput != null) {
+      return mappedInput.read(object, offset);
+    }
+
+    final Class<T> target = (Class<T>) object.getClass();
+    final StructCodec<T> codec = StructCodecs.of(target);
+
+    final ByteBuffer byteBuffer = scratch(codec != null ? codec.size() : ClassUtils.sizeOf(target));
+    inputChannel.read(byteBuffer, offset);
+    byteBuffer.flip();
+
+    try {
+      return codec != null ?
+          codec.decode(byteBuffer, 0, object) :
+          StructDecoder.of(target).decode(object, byteBuffer, 0);
+    } catch (Exception e) {
+      throw new IOException("read error", e);
+    }
+  }
+
+  /**
+   * 使用指定的编解码器从文件中解析目标类型。
+   *
+   * @param codec  目标类型的编解码器。
+   * @param offset 文件偏移量。
+   * @param <T>    目标类型的泛型。
+   * @return 目标类型解析结果对象。
+   * @throws IOException 可能出现的 io 异常。
+   */
+  @Override
+  public <T> T read(StructCodec<T> codec, long offset) throws IOException {
+    if (mappedInput != null) {
+      return mappedInput.read(codec, offset);
+    }
+
+    final ByteBuffer byteBuffer = scratch(codec.size());
+    inputChannel.read(byteBuffer, offset);
+    byteBuffer.flip();
+
+    try {
+      return codec.decode(byteBuffer, 0);
+    } catch (Exception e) {
+      throw new IOException("read error", e);
+    }
+  }
+
+  @Override
   public byte readByte(long offset) throws IOException {
-    final ByteBuffer byteBuffer = ByteBuffer.allocate(Byte.BYTES);
-    byteBuffer.order(byteOrder);
+    if (mappedInput != null) {
+      return mappedInput.readByte(offset);
+    }
+
+    final ByteBuffer byteBuffer = scratch(Byte.BYTES);
     inputChannel.read(byteBuffer, offset);
     byteBuffer.flip();
 
     return byteBuffer.get();
   }
 
+  @Override
   public byte[] readBytes(long offset, int size) throws IOException {
-    final ByteBuffer byteBuffer = ByteBuffer.allocate(size);
-    byteBuffer.order(byteOrder);
-    inputChannel.read(byteBuffer, offset);
-    byteBuffer.flip();
+    if (mappedInput != null) {
+      return mappedInput.readBytes(offset, size);
+    }
 
     byte[] bytes = new byte[size];
-    byteBuffer.get(bytes, 0, size);
+    inputChannel.read(ByteBuffer.wrap(bytes), offset);
     return bytes;
   }
 
+  @Override
   public char readChar(long offset) throws IOException {
-    final ByteBuffer byteBuffer = ByteBuffer.allocate(Character.BYTES);
-    byteBuffer.order(byteOrder);
+    if (mappedInput != null) {
+      return mappedInput.readChar(offset);
+    }
+
+    final ByteBuffer byteBuffer = scratch(Character.BYTES);
     inputChannel.read(byteBuffer, offset);
     byteBuffer.flip();
 
     return byteBuffer.getChar();
   }
 
+  @Override
   public short readShort(long offset) throws IOException {
-    final ByteBuffer byteBuffer = ByteBuffer.allocate(Short.BYTES);
-    byteBuffer.order(byteOrder);
+    if (mappedInput != null) {
+      return mappedInput.readShort(offset);
+    }
+
+    final ByteBuffer byteBuffer = scratch(Short.BYTES);
     inputChannel.read(byteBuffer, offset);
     byteBuffer.flip();
 
     return byteBuffer.getShort();
   }
 
+  @Override
   public int readInt(long offset) throws IOException {
-    final ByteBuffer byteBuffer = ByteBuffer.allocate(Integer.BYTES);
-    byteBuffer.order(byteOrder);
+    if (mappedInput != null) {
+      return mappedInput.readInt(offset);
+    }
+
+    final ByteBuffer byteBuffer = scratch(Integer.BYTES);
     inputChannel.read(byteBuffer, offset);
     byteBuffer.flip();
 
     return byteBuffer.getInt();
   }
 
+  @Override
   public long readLong(long offset) throws IOException {
-    final ByteBuffer byteBuffer = ByteBuffer.allocate(Long.BYTES);
-    byteBuffer.order(byteOrder);
+    if (mappedInput != null) {
+      return mappedInput.readLong(offset);
+    }
+
+    final ByteBuffer byteBuffer = scratch(Long.BYTES);
     inputChannel.read(byteBuffer, offset);
     byteBuffer.flip();
 
     return byteBuffer.getLong();
   }
 
+  /**
+   * 批量读取 byte 数组。
+   *
+   * @param offset 文件偏移量。
+   * @param count  元素个数。
+   * @return 读取结果。
+   * @throws IOException 可能出现的 io 异常。
+   */
   @Override
-  public void close() throws IOException {
-    ClassUtils.sClassSizeCache.clear();
-    ClassUtils.sFullDeclaredFieldsMap.clear();
-
-    if (inputChannel != null && inputChannel.isOpen()) {
-      inputChannel.close();
+  public byte[] readByteArray(long offset, int count) throws IOException {
+    if (mappedInput != null) {
+      return mappedInput.readByteArray(offset, count);
     }
-  }
 
-  public boolean isEof(long offset) {
-    return offset >= size;
+    byte[] array = new byte[count];
+    bulk(offset, count).get(array);
+    return array;
   }
 
-  public long size() { return size; }
+  /**
+   * 批量读取 short 数组，通过按字节序设置好的 {@link java.nio.ShortBuffer} 视图一次性转换。
+   *
+   * @param offset 文件偏移量。
+   * @param count  元素个数。
+   * @return 读取结果。
+   * @throws IOException 可能出现的 io 异常。
+   */
+  @Override
+  public short[] readShortArray(long offset, int count) throws IOException {
+    if (mappedInput != null) {
+      return mappedInput.readShortArray(offset, count);
+    }
 
-  public static int sizeOf(Class<?> clazz) {
-    return ClassUtils.sizeOf(clazz);
+    short[] array = new short[count];
+    bulk(offset, count * Short.BYTES).asShortBuffer().get(array);
+    return array;
   }
 
-  private static class ClassUtils {
-    private static final int MAX_CACHE_CLASS = 20;
-
-    private static SimpleLru<Class<?>, Field[]> sFullDeclaredFieldsMap = new SimpleLru<>(MAX_CACHE_CLASS);
-    private static SimpleLru<Class<?>, Integer> sClassSizeCache = new SimpleLru<>(20);
-
-    private static Comparator<Field> fieldComparator = new Comparator<Field>() {
-      @Override
-      public int compare(Field o1, Field o2) {
-        final FieldOrder a1 = o1.getAnnotation(FieldOrder.class);
-        final FieldOrder a2 = o2.getAnnotation(FieldOrder.class);
-        // 静态成员可能没有注解。
-        if (a1 == null) {
-          return -1;
-        }
-
-        if(a2 == null) {
-          return 1;
-        }
-
-        return a1.n() - a2.n();
-      }
-    };
-
-    static Field[] fullDeclaredFields(Class<?> clazz) {
-      Field[] fullDeclaredFields = sFullDeclaredFieldsMap.get(clazz);
-      if (fullDeclaredFields == null) {
-        fullDeclaredFields = buildFullDeclaredFields(clazz);
-        sFullDeclaredFieldsMap.put(clazz, fullDeclaredFields);
-      }
-
-      return fullDeclaredFields;
+  /**
+   * 批量读取 int 数组，通过按字节序设置好的 {@link java.nio.IntBuffer} 视图一次性转换。
+   *
+   * @param offset 文件偏移量。
+   * @param count  元素个数。
+   * @return 读取结果。
+   * @throws IOException 可能出现的 io 异常。
+   */
+  @Override
+  public int[] readIntArray(long offset, int count) throws IOException {
+    if (mappedInput != null) {
+      return mappedInput.readIntArray(offset, count);
     }
 
-    private static Field[] buildFullDeclaredFields(Class<?> clazz) {
-      List<Field> fullFields = new ArrayList<>();
-      Field[] fields = clazz.getDeclaredFields();
-
-      Class<?> parent = clazz.getSuperclass();
-      while (parent != Object.class) {
-        final Field[] parentFields = parent.getDeclaredFields();
-
-        Arrays.sort(parentFields, fieldComparator);
-        fullFields.addAll(Arrays.asList(parentFields));
-        parent = parent.getSuperclass();
-      }
+    int[] array = new int[count];
+    bulk(offset, count * Integer.BYTES).asIntBuffer().get(array);
+    return array;
+  }
 
-      Arrays.sort(fields, fieldComparator);
-      fullFields.addAll(Arrays.asList(fields));
-      return fullFields.toArray(new Field[0]);
+  @Override
+  public ByteBuffer readBuffer(long offset, int size) throws IOException {
+    if (mappedInput != null) {
+      return mappedInput.readBuffer(offset, size);
     }
 
-    static int sizeOfUnion(Class<?> clazz) {
+    return bulk(offset, size);
+  }
 
-      if (clazz.isPrimitive()) {
-        return sizeOf(clazz);
+  /*
+    通道模式下一次读取 byteCount 字节，返回已设置字节序的新缓冲区。
+   */
+  private ByteBuffer bulk(long offset, int byteCount) throws IOException {
+    final ByteBuffer byteBuffer = ByteBuffer.allocate(byteCount);
+    while (byteBuffer.hasRemaining()) {
+      if (inputChannel.read(byteBuffer, offset + byteBuffer.position()) < 0) {
+        break;
       }
+    }
+    byteBuffer.flip();
 
-      Field[] fieldInfoList = fullDeclaredFields(clazz);
+    return byteBuffer.order(byteOrder);
+  }
 
-      // 取出 union 类型。
-      int[] typeSize = new int[fieldInfoList.length];
-      for (int i = 0; i < typeSize.length; i++) {
-        final Field field = fieldInfoList[i];
-        final Class<?> fieldType = field.getType();
+  @Override
+  public void close() throws IOException {
+    if (inputChannel != null && inputChannel.isOpen()) {
+      inputChannel.close();
+    }
+  }
 
-        if (Modifier.isStatic(field.getModifiers())) {
-          continue;
-        }
+  @Override
+  public boolean isEof(long offset) {
+    return offset >= size;
+  }
 
-        // 处理数组成员类型。
-        if (fieldType.isArray()) {
-          typeSize[i] = sizeOf(fieldType.getComponentType()) * getArrayFieldLength(field, clazz);
-          continue;
-        }
+  @Override
+  public long size() { return size; }
 
-        typeSize[i] = sizeOf(fieldType);
-      }
+  public static int sizeOf(Class<?> clazz) {
+    final StructCodec<?> codec = StructCodecs.of(clazz);
+    return codec != null ? codec.size() : ClassUtils.sizeOf(clazz);
+  }
 
-      // 得到字节占用（最大成员的大小）。
-      Arrays.sort(typeSize);
-      return typeSize[typeSize.length - 1];
-    }
+  static class ClassUtils {
 
     public static int sizeOf(Class<?> clazz) {
       // 不支持数组类型，因为无法获取数组长度。
@@ -343,49 +410,19 @@ public class ObjectInput implements Closeable {
         return Long.BYTES;
       }
 
-      final Integer cacheSize = sClassSizeCache.get(clazz);
-      if (cacheSize != null) { return cacheSize; }
-
-      if (isStruct(clazz)) {
-        int size = 0;
-        Field[] fieldInfoList = fullDeclaredFields(clazz);
-        for (Field field : fieldInfoList) {
-          final Class<?> fieldType = field.getType();
-
-          if (Modifier.isStatic(field.getModifiers())) {
-            continue;
-          }
-
-          // 处理数组成员类型。
-          if (fieldType.isArray()) {
-            final Class<?> componentType = field.getType().getComponentType();
-            size += sizeOf(componentType) * getArrayFieldLength(field, clazz);
-            continue;
-          }
-
-          size += sizeOf(fieldType);
-        }
-
-        sClassSizeCache.put(clazz, size);
-        return size;
-      }
-
-      if (isUnion(clazz)) {
-        return sizeOfUnion(clazz);
-      }
-
-      throw new IllegalArgumentException("Not a struct or union type: " + clazz);
+      // Struct 和 Union 的大小由布局元信息预先计算。
+      return StructLayout.of(clazz).size;
     }
 
-    private static boolean isStruct(Class<?> type) {
+    static boolean isStruct(Class<?> type) {
       return Struct.class.isAssignableFrom(type);
     }
 
-    private static boolean isUnion(Class<?> type) {
+    static boolean isUnion(Class<?> type) {
       return Union.class.isAssignableFrom(type);
     }
 
-    private static void checkSupportType(Class<?> type) {
+    static void checkSupportType(Class<?> type) {
       if (!type.isPrimitive() && !isStruct(type) && !isUnion(type)) {
         throw new IllegalArgumentException("Not a struct or union type: " + type);
       }
@@ -404,45 +441,5 @@ public class ObjectInput implements Closeable {
         throw new IllegalArgumentException("Must implement the default constructor.", e);
       }
     }
-
-    static int getArrayFieldLength(Field field, Class<?> extra) {
-      final Object helper = newObject(extra);
-      try {
-        final Object array = field.get(helper);
-        final int length = Array.getLength(array);
-        if (length == 0) {
-          throw new IllegalArgumentException("array length is zero: [" + field.getType().getComponentType());
-        }
-        return length;
-      } catch (Exception e) {
-        throw new IllegalArgumentException("error", e);
-      }
-    }
-
-    private static final class SimpleLru<K, V> {
-      private final LinkedHashMap<K, V> lruMap;
-
-      SimpleLru(final int max) {
-        this.lruMap = new LinkedHashMap<K, V>(
-            (int) (Math.ceil(max / 0.75F)) + 1, 0.75F, true) {
-          @Override
-          protected boolean removeEldestEntry(Map.Entry eldest) {
-            return size() > max;
-          }
-        };
-      }
-
-      V get(K key) {
-        return lruMap.get(key);
-      }
-
-      void put(K key, V value) {
-        lruMap.put(key, value);
-      }
-
-      void clear() {
-        lruMap.clear();
-      }
-    }
   }
 }
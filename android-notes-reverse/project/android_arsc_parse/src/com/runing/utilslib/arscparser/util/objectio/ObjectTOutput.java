@@ -1,16 +1,16 @@
 package com.runing.utilslib.arscparser.util.objectio;
 
+import com.runing.utilslib.arscparser.util.objectio.ObjectInput.ClassUtils;
+
 import java.io.Closeable;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.lang.reflect.Array;
 import java.lang.reflect.Field;
-import java.lang.reflect.Modifier;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.channels.FileChannel;
-import java.util.*;
 
 /**
  * Created by l0neman on 2019/05/10.
@@ -73,28 +73,19 @@ public class ObjectTOutput implements Closeable {
     }
 
     // 处理 Struct 和 Union 类型。
-    final boolean isUnion = ClassUtils.isUnion(target);
-    if (ClassUtils.isStruct(target) || isUnion) {
+    if (ClassUtils.isStruct(target) || ClassUtils.isUnion(target)) {
       T object = ClassUtils.newObject(target);
 
-      int index = offset;
-      Field[] fieldInfoList = ClassUtils.fullDeclaredFields(target);
-      for (Field field : fieldInfoList) {
-        final Class<?> fieldType = field.getType();
-
-        if (Modifier.isStatic(field.getModifiers())) {
-          continue;
-        }
-
-        if (!field.isAccessible()) {
-          field.setAccessible(true);
-        }
+      for (StructLayout.Member member : StructLayout.of(target).members) {
+        final Field field = member.field;
+        final Class<?> fieldType = member.type;
+        int index = offset + member.offset;
 
         // 处理数组成员类型。
-        if (fieldType.isArray()) {
-          final Class<?> componentType = field.getType().getComponentType();
+        if (member.isArray()) {
+          final Class<?> componentType = fieldType.getComponentType();
 
-          final int length = ClassUtils.getArrayFieldLength(field, target);
+          final int length = member.arrayLength;
           Object arrayField = Array.newInstance(componentType, length);
           final int componentTypeSize = ClassUtils.sizeOf(componentType);
 
@@ -108,11 +99,7 @@ public class ObjectTOutput implements Closeable {
           continue;
         }
 
-        ClassUtils.checkSupportType(fieldType);
-
         // 非数组递归解析。
-        final int fieldTypeSize = ClassUtils.sizeOf(fieldType);
-
         Object fieldObj = fromByteBuffer(fieldType, in, index);
         /*
         if (target.getSimpleName().equals("ResValue")) {
@@ -130,11 +117,6 @@ public class ObjectTOutput implements Closeable {
         // */
 
         field.set(object, fieldObj);
-
-        // Union 由于成员共用内存，所以需要从头读取。
-        if (!isUnion) {
-          index += fieldTypeSize;
-        }
       }
       return object;
     }
@@ -211,9 +193,6 @@ public class ObjectTOutput implements Closeable {
 
   @Override
   public void close() throws IOException {
-    ClassUtils.sClassSizeCache.clear();
-    ClassUtils.sFullDeclaredFieldsMap.clear();
-
     if (inputChannel != null && inputChannel.isOpen()) {
       inputChannel.close();
     }
@@ -229,230 +208,6 @@ public class ObjectTOutput implements Closeable {
   public long size() { return size; }
 
   public static int sizeOf(Class<?> clazz) {
-    return ClassUtils.sizeOf(clazz);
-  }
-
-  private static class ClassUtils {
-    private static final int MAX_CACHE_CLASS = 20;
-
-    private static ClassUtils.SimpleLru<Class<?>, Field[]> sFullDeclaredFieldsMap = new ClassUtils.SimpleLru<>(MAX_CACHE_CLASS);
-    private static ClassUtils.SimpleLru<Class<?>, Integer> sClassSizeCache = new ClassUtils.SimpleLru<>(20);
-
-    private static Comparator<Field> fieldComparator = new Comparator<Field>() {
-      @Override
-      public int compare(Field o1, Field o2) {
-        final FieldOrder a1 = o1.getAnnotation(FieldOrder.class);
-        final FieldOrder a2 = o2.getAnnotation(FieldOrder.class);
-        // 静态成员可能没有注解。
-        if (a1 == null) {
-          return -1;
-        }
-
-        if (a2 == null) {
-          return 1;
-        }
-
-        return a1.n() - a2.n();
-      }
-    };
-
-    static Field[] fullDeclaredFields(Class<?> clazz) {
-      Field[] fullDeclaredFields = sFullDeclaredFieldsMap.get(clazz);
-      if (fullDeclaredFields == null) {
-        fullDeclaredFields = buildFullDeclaredFields(clazz);
-        sFullDeclaredFieldsMap.put(clazz, fullDeclaredFields);
-      }
-
-      return fullDeclaredFields;
-    }
-
-    private static Field[] buildFullDeclaredFields(Class<?> clazz) {
-      List<Field> fullFields = new ArrayList<>();
-      Field[] fields = clazz.getDeclaredFields();
-
-      Class<?> parent = clazz.getSuperclass();
-      while (parent != Object.class) {
-        final Field[] parentFields = parent.getDeclaredFields();
-
-        Arrays.sort(parentFields, fieldComparator);
-        fullFields.addAll(Arrays.asList(parentFields));
-        parent = parent.getSuperclass();
-      }
-
-      Arrays.sort(fields, fieldComparator);
-      fullFields.addAll(Arrays.asList(fields));
-      return fullFields.toArray(new Field[0]);
-    }
-
-    static int sizeOfUnion(Class<?> clazz) {
-
-      if (clazz.isPrimitive()) {
-        return sizeOf(clazz);
-      }
-
-      Field[] fieldInfoList = fullDeclaredFields(clazz);
-
-      // 取出 union 类型。
-      int[] typeSize = new int[fieldInfoList.length];
-      for (int i = 0; i < typeSize.length; i++) {
-        final Field field = fieldInfoList[i];
-        final Class<?> fieldType = field.getType();
-
-        if (Modifier.isStatic(field.getModifiers())) {
-          continue;
-        }
-
-        // 处理数组成员类型。
-        if (fieldType.isArray()) {
-          typeSize[i] = sizeOf(fieldType.getComponentType()) * getArrayFieldLength(field, clazz);
-          continue;
-        }
-
-        typeSize[i] = sizeOf(fieldType);
-      }
-
-      // 得到字节占用（最大成员的大小）。
-      Arrays.sort(typeSize);
-      return typeSize[typeSize.length - 1];
-    }
-
-    public static int sizeOf(Class<?> clazz) {
-      // 不支持数组类型，因为无法获取数组长度。
-      if (clazz.isArray()) {
-        throw new IllegalArgumentException("not support array type: " + clazz);
-      }
-
-      checkSupportType(clazz);
-
-      // 计算基本类型大小。
-      if (clazz == byte.class || clazz == Byte.class) {
-        return Byte.BYTES;
-      }
-
-      if (clazz == char.class || clazz == Character.class) {
-        return Byte.BYTES;
-      }
-
-      if (clazz == short.class || clazz == Short.class) {
-        return Short.BYTES;
-      }
-
-      if (clazz == int.class || clazz == Integer.class) {
-        return Integer.BYTES;
-      }
-
-      if (clazz == float.class || clazz == Float.class) {
-        return Float.BYTES;
-      }
-
-      if (clazz == double.class || clazz == Double.class) {
-        return Double.BYTES;
-      }
-
-      if (clazz == long.class || clazz == Long.class) {
-        return Long.BYTES;
-      }
-
-      final Integer cacheSize = sClassSizeCache.get(clazz);
-      if (cacheSize != null) { return cacheSize; }
-
-      if (isStruct(clazz)) {
-        int size = 0;
-        Field[] fieldInfoList = fullDeclaredFields(clazz);
-        for (Field field : fieldInfoList) {
-          final Class<?> fieldType = field.getType();
-
-          if (Modifier.isStatic(field.getModifiers())) {
-            continue;
-          }
-
-          // 处理数组成员类型。
-          if (fieldType.isArray()) {
-            final Class<?> componentType = field.getType().getComponentType();
-            size += sizeOf(componentType) * getArrayFieldLength(field, clazz);
-            continue;
-          }
-
-          size += sizeOf(fieldType);
-        }
-
-        sClassSizeCache.put(clazz, size);
-        return size;
-      }
-
-      if (isUnion(clazz)) {
-        return sizeOfUnion(clazz);
-      }
-
-      throw new IllegalArgumentException("Not a struct or union type: " + clazz);
-    }
-
-    private static boolean isStruct(Class<?> type) {
-      return Struct.class.isAssignableFrom(type);
-    }
-
-    private static boolean isUnion(Class<?> type) {
-      return Union.class.isAssignableFrom(type);
-    }
-
-    private static void checkSupportType(Class<?> type) {
-      if (!type.isPrimitive() && !isStruct(type) && !isUnion(type)) {
-        throw new IllegalArgumentException("Not a struct or union type: " + type);
-      }
-
-      if (type == double.class || type == Double.class ||
-          type == float.class || type == Float.class ||
-          type == boolean.class || type == Boolean.class) {
-        throw new IllegalArgumentException("Not a struct or union type: " + type);
-      }
-    }
-
-    static <T> T newObject(Class<T> target) {
-      try {
-        return target.newInstance();
-      } catch (Exception e) {
-        throw new IllegalArgumentException("Must implement the default constructor.", e);
-      }
-    }
-
-    static int getArrayFieldLength(Field field, Class<?> extra) {
-      final Object helper = newObject(extra);
-      try {
-        final Object array = field.get(helper);
-        final int length = Array.getLength(array);
-        if (length == 0) {
-          throw new IllegalArgumentException("array length is zero: [" + field.getType().getComponentType());
-        }
-        return length;
-      } catch (Exception e) {
-        throw new IllegalArgumentException("error", e);
-      }
-    }
-
-    private static final class SimpleLru<K, V> {
-      private final LinkedHashMap<K, V> lruMap;
-
-      SimpleLru(final int max) {
-        this.lruMap = new LinkedHashMap<K, V>(
-            (int) (Math.ceil(max / 0.75F)) + 1, 0.75F, true) {
-          @Override
-          protected boolean removeEldestEntry(Map.Entry eldest) {
-            return size() > max;
-          }
-        };
-      }
-
-      V get(K key) {
-        return lruMap.get(key);
-      }
-
-      void put(K key, V value) {
-        lruMap.put(key, value);
-      }
-
-      void clear() {
-        lruMap.clear();
-      }
-    }
+    return ObjectInput.sizeOf(clazz);
   }
 }
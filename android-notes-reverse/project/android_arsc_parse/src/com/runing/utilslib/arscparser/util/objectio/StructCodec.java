@@ -0,0 +1,47 @@
+package com.runing.utilslib.arscparser.util.objectio;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 结构体编解码器，由注解处理器 StructCodecProcessor 在编译期为每个 {@link Struct} 和 {@link Union} 类型生成，
+ * 生成类名为 {@code <类名>Codec}（嵌套类中的 {@code $} 替换为 {@code _}）。
+ * <p>
+ * 生成的编解码器直接按字段偏移读写 {@link ByteBuffer}，不依赖反射，也不需要运行时预热。
+ */
+public interface StructCodec<T> {
+
+  /**
+   * 结构体在文件中的字节大小，与生成类中的 {@code SIZE} 常量相同。
+   */
+  int size();
+
+  /**
+   * 从缓冲区的绝对位置解码一个对象，不改变缓冲区的 position。
+   *
+   * @param buffer 已设置好字节序的缓冲区。
+   * @param offset 对象在缓冲区中的偏移。
+   * @return 解码结果。
+   */
+  T decode(ByteBuffer buffer, int offset);
+
+  /**
+   * 从缓冲区的绝对位置将数据解码到已有对象中，嵌套的结构体成员和数组成员同样原地复用，为 null 时才创建。
+   *
+   * @param buffer 已设置好字节序的缓冲区。
+   * @param offset 对象在缓冲区中的偏移。
+   * @param object 复用的对象，为 null 时创建新对象。
+   * @return 解码结果，object 不为 null 时即为 object。
+   */
+  T decode(ByteBuffer buffer, int offset, T object);
+
+  /**
+   * 将对象编码到缓冲区的绝对位置，不改变缓冲区的 position。
+   * <p>
+   * 联合体只写入第一个成员，值为 null 的嵌套成员不写入。
+   *
+   * @param buffer 已设置好字节序的缓冲区。
+   * @param offset 对象在缓冲区中的偏移。
+   * @param value  编码对象。
+   */
+  void encode(ByteBuffer buffer, int offset, T value);
+}
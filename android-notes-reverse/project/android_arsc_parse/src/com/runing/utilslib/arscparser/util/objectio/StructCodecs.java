@@ -0,0 +1,41 @@
+package com.runing.utilslib.arscparser.util.objectio;
+
+/**
+ * 查找编译期生成的 {@link StructCodec}，未生成时返回 null，由调用方回退到 {@link StructDecoder}。
+ */
+final class StructCodecs {
+
+  /** 未生成编解码器的标记，不是 {@link StructCodec}，不会被误用 */
+  private static final Object NONE = new Object();
+
+  private static final ClassValue<Object> CODECS = new ClassValue<Object>() {
+    @Override
+    protected Object computeValue(Class<?> type) {
+      try {
+        final Class<?> codecClass = Class.forName(codecName(type), true, type.getClassLoader());
+        return (StructCodec<?>) codecClass.getField("INSTANCE").get(null);
+      } catch (ReflectiveOperationException | LinkageError e) {
+        return NONE;
+      }
+    }
+  };
+
+  private StructCodecs() {}
+
+  /**
+   * @return 生成的编解码器，不存在时返回 null。
+   */
+  @SuppressWarnings("unchecked")
+  static <T> StructCodec<T> of(Class<T> type) {
+    if (type.isPrimitive() || type.isArray()) {
+      return null;
+    }
+
+    final Object codec = CODECS.get(type);
+    return codec == NONE ? null : (StructCodec<T>) codec;
+  }
+
+  static String codecName(Class<?> type) {
+    return type.getName().replace('$', '_') + "Codec";
+  }
+}
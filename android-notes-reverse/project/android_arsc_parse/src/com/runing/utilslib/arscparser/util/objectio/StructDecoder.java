@@ -0,0 +1,366 @@
+package com.runing.utilslib.arscparser.util.objectio;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * 结构体解码器，每个 {@link Struct} 或 {@link Union} 类型在首次使用时生成一个专用的解码器。
+ * <p>
+ * 解码器由 {@link MethodHandle} 组合而成：构造对象，再对每个成员从 {@link ByteBuffer} 的绝对位置读取基本类型值并直接写入成员，
+ * 整个过程不经过反射调用，也不装箱基本类型。
+ * <p>
+ * 嵌套的结构体成员和数组成员已存在时原地填充，因此同一个对象可通过 {@link #decode(Object, ByteBuffer, int)} 反复复用。
+ * <p>
+ * 默认解码器按缓冲区自身的字节序读取；指定字节序的解码器（{@link #of(Class, ByteOrder)}）通过 {@link VarHandleReaders}
+ * 读取基本类型成员，字节序和成员偏移都固化在方法句柄中，并在解码前对整个结构体做一次边界检查。
+ */
+final class StructDecoder<T> {
+
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+  private static final ClassValue<StructDecoder<?>> DECODERS = decoders(null);
+  private static final ClassValue<StructDecoder<?>> LITTLE_ENDIAN_DECODERS = decoders(ByteOrder.LITTLE_ENDIAN);
+  private static final ClassValue<StructDecoder<?>> BIG_ENDIAN_DECODERS = decoders(ByteOrder.BIG_ENDIAN);
+
+  private static final MethodHandle NOOP;
+  private static final MethodHandle ADD;
+  private static final MethodHandle DECODE_STRUCT;
+
+  static {
+    try {
+      NOOP = LOOKUP.findStatic(StructDecoder.class, "noop", MethodType.methodType(void.class));
+      ADD = LOOKUP.findStatic(StructDecoder.class, "add", MethodType.methodType(int.class, int.class, int.class));
+      DECODE_STRUCT = LOOKUP.findStatic(StructDecoder.class, "decodeStruct", MethodType.methodType(
+          Object.class, StructDecoder.class, Object.class, ByteBuffer.class, int.class));
+    } catch (ReflectiveOperationException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
+  private final Class<T> type;
+  /** 固定的字节序，为 null 时使用缓冲区的字节序 */
+  private final ByteOrder order;
+  /** (ByteBuffer, int)T */
+  private final MethodHandle typedHandle;
+  /** (ByteBuffer, int)Object，用于 invokeExact 调用 */
+  private final MethodHandle handle;
+  /** (Object, ByteBuffer, int)void，将成员解码到已有对象中，用于 invokeExact 调用 */
+  private final MethodHandle fieldsHandle;
+
+  private static ClassValue<StructDecoder<?>> decoders(final ByteOrder order) {
+    return new ClassValue<StructDecoder<?>>() {
+      @Override
+      protected StructDecoder<?> computeValue(Class<?> type) {
+        return new StructDecoder<>(type, order);
+      }
+    };
+  }
+
+  @SuppressWarnings("unchecked")
+  static <T> StructDecoder<T> of(Class<T> type) {
+    return (StructDecoder<T>) DECODERS.get(type);
+  }
+
+  /**
+   * 返回固定字节序的解码器。
+   *
+   * @param order 字节序，为 null 时与 {@link #of(Class)} 相同。
+   */
+  @SuppressWarnings("unchecked")
+  static <T> StructDecoder<T> of(Class<T> type, ByteOrder order) {
+    if (order == null) {
+      return of(type);
+    }
+
+    return (StructDecoder<T>) (order == ByteOrder.BIG_ENDIAN ? BIG_ENDIAN_DECODERS : LITTLE_ENDIAN_DECODERS)
+        .get(type);
+  }
+
+  private StructDecoder(Class<T> type, ByteOrder order) {
+    if (!ObjectInput.ClassUtils.isStruct(type) && !ObjectInput.ClassUtils.isUnion(type)) {
+      throw new IllegalArgumentException("Not a struct or union type: " + type);
+    }
+
+    this.type = type;
+    this.order = order;
+
+    final MethodHandle fieldsWriter;
+    try {
+      fieldsWriter = buildFieldsWriter(type);
+      typedHandle = buildDecoder(type, fieldsWriter);
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalArgumentException("Must implement the default constructor.", e);
+    }
+
+    handle = typedHandle.asType(MethodType.methodType(Object.class, ByteBuffer.class, int.class));
+    fieldsHandle = fieldsWriter.asType(MethodType.methodType(void.class, Object.class, ByteBuffer.class, int.class));
+  }
+
+  /**
+   * 从缓冲区的绝对位置解码一个对象，不改变缓冲区的 position。
+   *
+   * @param buffer 已设置好字节序的缓冲区。
+   * @param offset 对象在缓冲区中的偏移。
+   * @return 解码结果。
+   */
+  @SuppressWarnings("unchecked")
+  T decode(ByteBuffer buffer, int offset) {
+    try {
+      return (T) handle.invokeExact(buffer, offset);
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable t) {
+      throw new IllegalStateException(t);
+    }
+  }
+
+  /**
+   * 从缓冲区的绝对位置将数据解码到已有对象中，不改变缓冲区的 position。
+   *
+   * @param object 复用的对象，为 null 时创建新对象。
+   * @param buffer 已设置好字节序的缓冲区。
+   * @param offset 对象在缓冲区中的偏移。
+   * @return 解码结果，object 不为 null 时即为 object。
+   */
+  T decode(T object, ByteBuffer buffer, int offset) {
+    if (object == null) {
+      return decode(buffer, offset);
+    }
+
+    try {
+      fieldsHandle.invokeExact((Object) object, buffer, offset);
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable t) {
+      throw new IllegalStateException(t);
+    }
+    return object;
+  }
+
+  /*
+    (ByteBuffer, int)T = fields(new T(), buffer, offset) 后返回对象。
+   */
+  private static MethodHandle buildDecoder(Class<?> type, MethodHandle fieldsWriter)
+      throws ReflectiveOperationException {
+    final MethodHandle constructor = MethodHandles.dropArguments(
+        LOOKUP.unreflectConstructor(accessibleConstructor(type)), 0, ByteBuffer.class, int.class);
+
+    final MethodHandle returnObject = MethodHandles.dropArguments(
+        MethodHandles.identity(type), 1, ByteBuffer.class, int.class);
+
+    final MethodHandle decodeFields = MethodHandles.foldArguments(returnObject, fieldsWriter);
+    return MethodHandles.foldArguments(decodeFields, constructor);
+  }
+
+  /*
+    (T, ByteBuffer, int)void，依次解码并写入所有成员。
+   */
+  private MethodHandle buildFieldsWriter(Class<?> type) throws ReflectiveOperationException {
+    final StructLayout layout = StructLayout.of(type);
+
+    MethodHandle writer = MethodHandles.dropArguments(NOOP, 0, type, ByteBuffer.class, int.class);
+
+    // 倒序折叠，使成员按顺序解码。
+    for (int i = layout.members.length - 1; i >= 0; i--) {
+      final StructLayout.Member member = layout.members[i];
+      final MethodHandle setter = LOOKUP.unreflectSetter(member.field);
+      final MethodHandle fieldWriter;
+
+      // 处理数组和嵌套结构体成员，优先填充已存在的数组或对象。
+      if (member.isArray() || !member.type.isPrimitive()) {
+        MethodHandle reader = member.isArray() ?
+            MethodHandles.insertArguments(arrayReader(member.type.getComponentType()), 3, member.arrayLength) :
+            structReader(member.type);
+        reader = withOffset(reader, 2, member.offset);
+        reader = MethodHandles.filterArguments(reader, 0, LOOKUP.unreflectGetter(member.field));
+
+        // (T, T, ByteBuffer, int)void -> (T, ByteBuffer, int)void
+        fieldWriter = MethodHandles.permuteArguments(
+            MethodHandles.collectArguments(setter, 1, reader)
+                .asType(MethodType.methodType(void.class, type, type, ByteBuffer.class, int.class)),
+            MethodType.methodType(void.class, type, ByteBuffer.class, int.class), 0, 0, 1, 2);
+      } else {
+        final MethodHandle reader = primitiveReader(member.type);
+
+        fieldWriter = MethodHandles.collectArguments(setter, 1, withOffset(reader, 1, member.offset))
+            .asType(MethodType.methodType(void.class, type, ByteBuffer.class, int.class));
+      }
+
+      writer = MethodHandles.foldArguments(writer, fieldWriter);
+    }
+
+    // 固定字节序时先检查整个结构体的边界，成员读取不再单独越界。
+    if (order != null) {
+      writer = MethodHandles.foldArguments(writer, MethodHandles.dropArguments(
+          VarHandleReaders.boundsCheck(layout.size), 0, type));
+    }
+
+    return writer;
+  }
+
+  /*
+    将 reader 第 position 个参数（偏移）加上 offset。
+   */
+  private static MethodHandle withOffset(MethodHandle reader, int position, int offset) {
+    if (offset == 0) {
+      return reader;
+    }
+
+    return MethodHandles.filterArguments(reader, position, MethodHandles.insertArguments(ADD, 1, offset));
+  }
+
+  private MethodHandle primitiveReader(Class<?> type) throws ReflectiveOperationException {
+    if (order != null && (type == short.class || type == int.class || type == long.class)) {
+      return VarHandleReaders.reader(type, order);
+    }
+
+    if (type == byte.class) {
+      return LOOKUP.findVirtual(ByteBuffer.class, "get", MethodType.methodType(byte.class, int.class));
+    }
+
+    if (type == char.class) {
+      return LOOKUP.findStatic(StructDecoder.class, "getChar",
+          MethodType.methodType(char.class, ByteBuffer.class, int.class));
+    }
+
+    if (type == short.class) {
+      return LOOKUP.findVirtual(ByteBuffer.class, "getShort", MethodType.methodType(short.class, int.class));
+    }
+
+    if (type == int.class) {
+      return LOOKUP.findVirtual(ByteBuffer.class, "getInt", MethodType.methodType(int.class, int.class));
+    }
+
+    if (type == long.class) {
+      return LOOKUP.findVirtual(ByteBuffer.class, "getLong", MethodType.methodType(long.class, int.class));
+    }
+
+    throw new IllegalArgumentException("Not a struct or union type: " + type);
+  }
+
+  /*
+    (X, ByteBuffer, int)X，参数依次为可复用的对象、缓冲区、偏移。
+   */
+  private MethodHandle structReader(Class<?> type) {
+    return MethodHandles.insertArguments(DECODE_STRUCT, 0, of(type, order))
+        .asType(MethodType.methodType(type, type, ByteBuffer.class, int.class));
+  }
+
+  /*
+    (X[], ByteBuffer, int, int)X[]，参数依次为可复用的数组、缓冲区、偏移、数组长度。
+   */
+  private MethodHandle arrayReader(Class<?> componentType) throws ReflectiveOperationException {
+    final Class<?> arrayType = Array.newInstance(componentType, 0).getClass();
+
+    if (componentType.isPrimitive()) {
+      ObjectInput.ClassUtils.checkSupportType(componentType);
+      final String name = "get" + Character.toUpperCase(componentType.getName().charAt(0)) +
+          componentType.getName().substring(1) + "Array";
+      return LOOKUP.findStatic(StructDecoder.class, name,
+          MethodType.methodType(arrayType, arrayType, ByteBuffer.class, int.class, int.class));
+    }
+
+    final MethodHandle structArray = LOOKUP.findStatic(StructDecoder.class, "getStructArray", MethodType.methodType(
+        Object[].class, StructDecoder.class, Object[].class, ByteBuffer.class, int.class, int.class));
+    return MethodHandles.insertArguments(structArray, 0, of(componentType, order))
+        .asType(MethodType.methodType(arrayType, arrayType, ByteBuffer.class, int.class, int.class));
+  }
+
+  private static Constructor<?> accessibleConstructor(Class<?> type)
+      throws ReflectiveOperationException {
+    final Constructor<?> constructor = type.getDeclaredConstructor();
+    constructor.setAccessible(true);
+
+    return constructor;
+  }
+
+  private static void noop() {}
+
+  private static Object decodeStruct(StructDecoder<Object> decoder, Object object, ByteBuffer buffer, int offset) {
+    return decoder.decode(object, buffer, offset);
+  }
+
+  private static int add(int a, int b) {
+    return a + b;
+  }
+
+  // char 在文件中占用一个字节。
+  private static char getChar(ByteBuffer buffer, int offset) {
+    return (char) buffer.get(offset);
+  }
+
+  private static byte[] getByteArray(byte[] array, ByteBuffer buffer, int offset, int length) {
+    if (array == null || array.length != length) {
+      array = new byte[length];
+    }
+
+    for (int i = 0; i < length; i++) {
+      array[i] = buffer.get(offset + i);
+    }
+    return array;
+  }
+
+  private static char[] getCharArray(char[] array, ByteBuffer buffer, int offset, int length) {
+    if (array == null || array.length != length) {
+      array = new char[length];
+    }
+
+    for (int i = 0; i < length; i++) {
+      array[i] = (char) buffer.get(offset + i);
+    }
+    return array;
+  }
+
+  private static short[] getShortArray(short[] array, ByteBuffer buffer, int offset, int length) {
+    if (array == null || array.length != length) {
+      array = new short[length];
+    }
+
+    for (int i = 0; i < length; i++) {
+      array[i] = buffer.getShort(offset + i * Short.BYTES);
+    }
+    return array;
+  }
+
+  private static int[] getIntArray(int[] array, ByteBuffer buffer, int offset, int length) {
+    if (array == null || array.length != length) {
+      array = new int[length];
+    }
+
+    for (int i = 0; i < length; i++) {
+      array[i] = buffer.getInt(offset + i * Integer.BYTES);
+    }
+    return array;
+  }
+
+  private static long[] getLongArray(long[] array, ByteBuffer buffer, int offset, int length) {
+    if (array == null || array.length != length) {
+      array = new long[length];
+    }
+
+    for (int i = 0; i < length; i++) {
+      array[i] = buffer.getLong(offset + i * Long.BYTES);
+    }
+    return array;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Object[] getStructArray(StructDecoder<?> decoder, Object[] array, ByteBuffer buffer, int offset,
+                                         int length) {
+    final int componentSize = StructLayout.of(decoder.type).size;
+
+    if (array == null || array.length != length) {
+      array = (Object[]) Array.newInstance(decoder.type, length);
+    }
+
+    for (int i = 0; i < length; i++) {
+      array[i] = ((StructDecoder<Object>) decoder).decode(array[i], buffer, offset + i * componentSize);
+    }
+    return array;
+  }
+}
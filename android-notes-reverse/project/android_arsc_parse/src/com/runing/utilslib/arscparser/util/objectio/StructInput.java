@@ -0,0 +1,81 @@
+package com.runing.utilslib.arscparser.util.objectio;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * 结构化输入，按偏移量读取 {@link Struct}、基本类型和基本类型数组。
+ * <p>
+ * 实现有基于文件的 {@link ObjectInput}，以及基于内存数据（byte[]、ByteBuffer、InputStream）的 {@link BufferInput}。
+ */
+public interface StructInput extends Closeable {
+
+  /**
+   * 解析目标类型。
+   *
+   * @param target 解析目标类型。
+   * @param offset 偏移量。
+   * @param <T>    目标类型的泛型。
+   * @return 目标类型解析结果对象。
+   * @throws IOException 可能出现的 io 异常。
+   */
+  <T extends Struct> T read(Class<T> target, long offset) throws IOException;
+
+  /**
+   * 将数据解析到已有对象中，嵌套的结构体成员和数组成员同样原地复用，适合在循环中反复读取同一类型。
+   *
+   * @param object 复用的对象。
+   * @param offset 偏移量。
+   * @param <T>    目标类型的泛型。
+   * @return object。
+   * @throws IOException 可能出现的 io 异常。
+   */
+  <T extends Struct> T read(T object, long offset) throws IOException;
+
+  /**
+   * 使用指定的编解码器解析目标类型。
+   *
+   * @param codec  目标类型的编解码器。
+   * @param offset 偏移量。
+   * @param <T>    目标类型的泛型。
+   * @return 目标类型解析结果对象。
+   * @throws IOException 可能出现的 io 异常。
+   */
+  <T> T read(StructCodec<T> codec, long offset) throws IOException;
+
+  byte readByte(long offset) throws IOException;
+
+  byte[] readBytes(long offset, int size) throws IOException;
+
+  char readChar(long offset) throws IOException;
+
+  short readShort(long offset) throws IOException;
+
+  int readInt(long offset) throws IOException;
+
+  long readLong(long offset) throws IOException;
+
+  byte[] readByteArray(long offset, int count) throws IOException;
+
+  short[] readShortArray(long offset, int count) throws IOException;
+
+  int[] readIntArray(long offset, int count) throws IOException;
+
+  /**
+   * 读取一段数据，返回 position 为 0、limit 为 size、已设置字节序的缓冲区，
+   * 用于在一块数据上重复定位视图对象（例如 {@code EntryView}）而不再逐项分配对象。
+   * <p>
+   * 基于内存的实现返回共享底层数据的视图，不复制数据。
+   *
+   * @param offset 偏移量。
+   * @param size   字节数。
+   * @return 缓冲区。
+   * @throws IOException 可能出现的 io 异常。
+   */
+  ByteBuffer readBuffer(long offset, int size) throws IOException;
+
+  boolean isEof(long offset);
+
+  long size();
+}
@@ -0,0 +1,161 @@
+package com.runing.utilslib.arscparser.util.objectio;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 结构体布局元信息，包括排序后的成员、成员偏移、成员大小、数组长度和结构体总大小。
+ * <p>
+ * 每个类型只计算一次，保存在 {@link ClassValue} 中，读取无锁，不会被淘汰，可被多个 ObjectInput 并发共享。
+ */
+final class StructLayout {
+
+  private static final ClassValue<StructLayout> LAYOUTS = new ClassValue<StructLayout>() {
+    @Override
+    protected StructLayout computeValue(Class<?> type) {
+      return new StructLayout(type);
+    }
+  };
+
+  private static final Comparator<Field> fieldComparator = new Comparator<Field>() {
+    @Override
+    public int compare(Field o1, Field o2) {
+      final FieldOrder a1 = o1.getAnnotation(FieldOrder.class);
+      final FieldOrder a2 = o2.getAnnotation(FieldOrder.class);
+      // 静态成员可能没有注解。
+      if (a1 == null) {
+        return -1;
+      }
+
+      if (a2 == null) {
+        return 1;
+      }
+
+      return a1.n() - a2.n();
+    }
+  };
+
+  /** 成员元信息。 */
+  static final class Member {
+    final Field field;
+    /** 成员类型，数组成员为数组类型 */
+    final Class<?> type;
+    /** 相对结构体起始位置的偏移 */
+    final int offset;
+    /** 成员占用的字节数 */
+    final int size;
+    /** 数组长度，非数组成员为 -1 */
+    final int arrayLength;
+
+    Member(Field field, int offset, int size, int arrayLength) {
+      this.field = field;
+      this.type = field.getType();
+      this.offset = offset;
+      this.size = size;
+      this.arrayLength = arrayLength;
+    }
+
+    boolean isArray() {
+      return arrayLength >= 0;
+    }
+  }
+
+  final Class<?> type;
+  final boolean union;
+  final int size;
+  /** 非静态成员，按解析顺序排列 */
+  final Member[] members;
+
+  static StructLayout of(Class<?> type) {
+    return LAYOUTS.get(type);
+  }
+
+  private StructLayout(Class<?> type) {
+    if (!ObjectInput.ClassUtils.isStruct(type) && !ObjectInput.ClassUtils.isUnion(type)) {
+      throw new IllegalArgumentException("Not a struct or union type: " + type);
+    }
+
+    this.type = type;
+    this.union = ObjectInput.ClassUtils.isUnion(type);
+
+    // 数组长度取自成员初始值，每个类型只构造一次辅助对象。
+    Object prototype = null;
+
+    List<Member> members = new ArrayList<>();
+    int index = 0;
+    int size = 0;
+    for (Field field : fullDeclaredFields(type)) {
+      if (Modifier.isStatic(field.getModifiers())) {
+        continue;
+      }
+
+      field.setAccessible(true);
+
+      final Class<?> fieldType = field.getType();
+      final int fieldSize;
+      int arrayLength = -1;
+
+      // 处理数组成员类型。
+      if (fieldType.isArray()) {
+        if (prototype == null) {
+          prototype = ObjectInput.ClassUtils.newObject(type);
+        }
+
+        arrayLength = arrayFieldLength(field, prototype);
+        fieldSize = ObjectInput.ClassUtils.sizeOf(fieldType.getComponentType()) * arrayLength;
+      } else {
+        ObjectInput.ClassUtils.checkSupportType(fieldType);
+        fieldSize = ObjectInput.ClassUtils.sizeOf(fieldType);
+      }
+
+      members.add(new Member(field, index, fieldSize, arrayLength));
+
+      // Union 由于成员共用内存，所以需要从头读取，大小为最大成员的大小。
+      if (union) {
+        size = Math.max(size, fieldSize);
+      } else {
+        index += fieldSize;
+        size = index;
+      }
+    }
+
+    this.size = size;
+    this.members = members.toArray(new Member[0]);
+  }
+
+  private static Field[] fullDeclaredFields(Class<?> clazz) {
+    List<Field> fullFields = new ArrayList<>();
+    Field[] fields = clazz.getDeclaredFields();
+
+    Class<?> parent = clazz.getSuperclass();
+    while (parent != Object.class) {
+      final Field[] parentFields = parent.getDeclaredFields();
+
+      Arrays.sort(parentFields, fieldComparator);
+      fullFields.addAll(Arrays.asList(parentFields));
+      parent = parent.getSuperclass();
+    }
+
+    Arrays.sort(fields, fieldComparator);
+    fullFields.addAll(Arrays.asList(fields));
+    return fullFields.toArray(new Field[0]);
+  }
+
+  private static int arrayFieldLength(Field field, Object prototype) {
+    try {
+      final Object array = field.get(prototype);
+      final int length = array == null ? 0 : Array.getLength(array);
+      if (length == 0) {
+        throw new IllegalArgumentException("array length is zero: [" + field.getType().getComponentType());
+      }
+      return length;
+    } catch (IllegalAccessException e) {
+      throw new IllegalArgumentException("error", e);
+    }
+  }
+}
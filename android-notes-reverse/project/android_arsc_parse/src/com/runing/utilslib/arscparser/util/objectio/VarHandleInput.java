@@ -0,0 +1,48 @@
+package com.runing.utilslib.arscparser.util.objectio;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * 基于 {@link java.lang.invoke.VarHandle} 的结构化输入。
+ * <p>
+ * 结构体布局由 {@link FieldOrder} 注解推导，与 {@link ObjectInput} 相同；基本类型成员通过按字节序缓存的
+ * {@code byteBufferViewVarHandle} 读取，成员偏移固化在解码器的方法句柄中，每个结构体在解码前只做一次整体边界检查。
+ * 配合 {@link #map(String, boolean)} 可安全地读取映射到堆外的大文件。
+ * <p>
+ * 此输入不使用编译期生成的编解码器。
+ */
+public class VarHandleInput extends BufferInput {
+
+  public VarHandleInput(byte[] data, boolean bigEndian) {
+    this(ByteBuffer.wrap(data), bigEndian);
+  }
+
+  /**
+   * @param buffer    数据缓冲区，偏移量 0 对应其当前 position，数据截止到其 limit。
+   * @param bigEndian 是否为大端字节序。
+   */
+  public VarHandleInput(ByteBuffer buffer, boolean bigEndian) {
+    super(buffer, bigEndian, true);
+  }
+
+  /**
+   * 将整个文件映射为只读缓冲区。
+   *
+   * @param file      文件路径。
+   * @param bigEndian 是否为大端字节序。
+   * @return 基于文件映射的输入。
+   * @throws IOException 可能出现的 io 异常。
+   */
+  public static VarHandleInput map(String file, boolean bigEndian) throws IOException {
+    try (FileChannel channel = new FileInputStream(file).getChannel()) {
+      if (channel.size() > Integer.MAX_VALUE) {
+        throw new IOException("file too large to map: " + file);
+      }
+
+      return new VarHandleInput(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), bigEndian);
+    }
+  }
+}
@@ -0,0 +1,61 @@
+package com.runing.utilslib.arscparser.util.objectio;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * 基于 {@link MethodHandles#byteBufferViewVarHandle(Class, ByteOrder)} 的基本类型读取句柄。
+ * <p>
+ * 读取句柄的字节序固定，与缓冲区自身的字节序无关，可直接作用于堆内或映射的缓冲区；
+ * 单独成类，只有使用固定字节序的解码器时才会加载。
+ */
+final class VarHandleReaders {
+
+  private static final MethodHandle CHECK_BOUNDS;
+
+  static {
+    try {
+      CHECK_BOUNDS = MethodHandles.lookup().findStatic(VarHandleReaders.class, "checkBounds",
+          MethodType.methodType(void.class, ByteBuffer.class, int.class, int.class));
+    } catch (ReflectiveOperationException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
+  private VarHandleReaders() {}
+
+  /**
+   * @return (ByteBuffer, int)X，X 为 short、int 或 long。
+   */
+  static MethodHandle reader(Class<?> type, ByteOrder order) {
+    final Class<?> viewType;
+    if (type == short.class) {
+      viewType = short[].class;
+    } else if (type == int.class) {
+      viewType = int[].class;
+    } else if (type == long.class) {
+      viewType = long[].class;
+    } else {
+      throw new IllegalArgumentException("not support type: " + type);
+    }
+
+    return MethodHandles.byteBufferViewVarHandle(viewType, order).toMethodHandle(VarHandle.AccessMode.GET);
+  }
+
+  /**
+   * @return (ByteBuffer, int)void，检查从偏移开始的 size 个字节是否都在缓冲区范围内。
+   */
+  static MethodHandle boundsCheck(int size) {
+    return MethodHandles.insertArguments(CHECK_BOUNDS, 2, size);
+  }
+
+  private static void checkBounds(ByteBuffer buffer, int offset, int size) {
+    if (offset < 0 || offset > buffer.limit() - size) {
+      throw new IndexOutOfBoundsException("offset: " + offset + ", size: " + size + ", limit: " + buffer.limit());
+    }
+  }
+}
@@ -0,0 +1,118 @@
+package com.runing.utilslib.arscparser.view;
+
+import com.runing.utilslib.arscparser.type.Config;
+import com.runing.utilslib.arscparser.type.ResTableEntry;
+import com.runing.utilslib.arscparser.type.ResTableMapEntry;
+import com.runing.utilslib.arscparser.util.Formatter;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 资源项 {@link ResTableEntry} 的享元视图，复杂资源项同时可读取 {@link ResTableMapEntry} 的成员。
+ * <p>
+ * 视图本身不保存数据，通过 {@link #moveTo(ByteBuffer, int)} 定位到缓冲区中的资源项后，所有 getter 直接读取缓冲区，
+ * 遍历资源项时同一个视图对象可重复使用，不产生任何分配。
+ */
+public final class EntryView {
+
+  /** ResTable_entry 大小 */
+  public static final int SIZE = 8;
+  /** ResTable_map_entry 大小 */
+  public static final int MAP_ENTRY_SIZE = 16;
+
+  private ByteBuffer buffer;
+  private int offset;
+
+  /**
+   * 定位到资源项。
+   *
+   * @param buffer 已设置字节序的缓冲区。
+   * @param offset 资源项在缓冲区中的偏移。
+   * @return 当前视图。
+   */
+  public EntryView moveTo(ByteBuffer buffer, int offset) {
+    this.buffer = buffer;
+    this.offset = offset;
+    return this;
+  }
+
+  /** 当前所在的缓冲区 */
+  public ByteBuffer buffer() {
+    return buffer;
+  }
+
+  public int offset() {
+    return offset;
+  }
+
+  /** 资源项头部大小 */
+  public short size() {
+    return buffer.getShort(offset);
+  }
+
+  /** 资源项标志位 */
+  public short flags() {
+    return buffer.getShort(offset + 2);
+  }
+
+  public boolean isComplex() {
+    return (flags() & ResTableEntry.FLAG_COMPLEX) != 0;
+  }
+
+  public boolean isPublic() {
+    return (flags() & ResTableEntry.FLAG_PUBLIC) != 0;
+  }
+
+  /** 资源项名称在资源项名称字符串池中的索引 */
+  public int keyIndex() {
+    return buffer.getInt(offset + 4);
+  }
+
+  /** 父 bag 资源 ID，仅复杂资源项有效 */
+  public int parent() {
+    return buffer.getInt(offset + 8);
+  }
+
+  /** bag 项个数，仅复杂资源项有效 */
+  public int count() {
+    return buffer.getInt(offset + 12);
+  }
+
+  @Override
+  public String toString() {
+    return Config.BEAUTIFUL ?
+        "{" +
+            "size=" + size() +
+            ", flags=" + flags() +
+            ", key={index=" + keyIndex() + '}' +
+            '}'
+        :
+        "EntryView{" +
+            "size=" + size() +
+            ", flags=" + flags() +
+            ", key=ResStringPoolRef{index=" + keyIndex() + '}' +
+            '}';
+  }
+
+  /**
+   * 按 {@link ResTableMapEntry} 的格式输出。
+   */
+  public String toMapEntryString() {
+    return Config.BEAUTIFUL ?
+        "{" +
+            "parent={ident=" + Formatter.toHex(Formatter.fromInt(parent(), true)) + '}' +
+            ", count=" + count() +
+            ", size=" + size() +
+            ", flags=" + flags() +
+            ", key={index=" + keyIndex() + '}' +
+            '}'
+        :
+        "EntryView{" +
+            "parent=ResTableRef{ident=" + parent() + '}' +
+            ", count=" + count() +
+            ", size=" + size() +
+            ", flags=" + flags() +
+            ", key=ResStringPoolRef{index=" + keyIndex() + '}' +
+            '}';
+  }
+}
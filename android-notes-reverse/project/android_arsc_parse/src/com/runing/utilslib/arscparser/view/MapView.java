@@ -0,0 +1,77 @@
+package com.runing.utilslib.arscparser.view;
+
+import com.runing.utilslib.arscparser.type.Config;
+import com.runing.utilslib.arscparser.type.ResTableMap;
+import com.runing.utilslib.arscparser.util.Formatter;
+
+import java.nio.ByteBuffer;
+
+/**
+ * bag 项 {@link ResTableMap} 的享元视图，{@link #value()} 返回内部复用的 {@link ValueView}。
+ *
+ * @see EntryView
+ */
+public final class MapView {
+
+  /** ResTable_map 大小 */
+  public static final int SIZE = 12;
+
+  private final ValueView value = new ValueView();
+  private ByteBuffer buffer;
+  private int offset;
+
+  /**
+   * 定位到 bag 项。
+   *
+   * @param buffer 已设置字节序的缓冲区。
+   * @param offset bag 项在缓冲区中的偏移。
+   * @return 当前视图。
+   */
+  public MapView moveTo(ByteBuffer buffer, int offset) {
+    this.buffer = buffer;
+    this.offset = offset;
+    value.moveTo(buffer, offset + 4);
+    return this;
+  }
+
+  /** 当前所在的缓冲区 */
+  public ByteBuffer buffer() {
+    return buffer;
+  }
+
+  public int offset() {
+    return offset;
+  }
+
+  /** bag 项名称的资源 ID */
+  public int name() {
+    return buffer.getInt(offset);
+  }
+
+  /** bag 项的值，随当前视图一起移动 */
+  public ValueView value() {
+    return value;
+  }
+
+  public byte dataType() {
+    return value.dataType();
+  }
+
+  public int data() {
+    return value.data();
+  }
+
+  @Override
+  public String toString() {
+    return Config.BEAUTIFUL ?
+        "{" +
+            "name={ident=" + Formatter.toHex(Formatter.fromInt(name(), true)) + '}' +
+            ", value=" + value +
+            '}'
+        :
+        "MapView{" +
+            "name=ResTableRef{ident=" + name() + '}' +
+            ", value=" + value +
+            '}';
+  }
+}
@@ -0,0 +1,80 @@
+package com.runing.utilslib.arscparser.view;
+
+import com.runing.utilslib.arscparser.type.Config;
+import com.runing.utilslib.arscparser.type.ResValue;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 资源值 {@link ResValue} 的享元视图。
+ *
+ * @see EntryView
+ */
+public final class ValueView {
+
+  /** Res_value 大小 */
+  public static final int SIZE = 8;
+
+  private ByteBuffer buffer;
+  private int offset;
+
+  /**
+   * 定位到资源值。
+   *
+   * @param buffer 已设置字节序的缓冲区。
+   * @param offset 资源值在缓冲区中的偏移。
+   * @return 当前视图。
+   */
+  public ValueView moveTo(ByteBuffer buffer, int offset) {
+    this.buffer = buffer;
+    this.offset = offset;
+    return this;
+  }
+
+  /** 当前所在的缓冲区 */
+  public ByteBuffer buffer() {
+    return buffer;
+  }
+
+  public int offset() {
+    return offset;
+  }
+
+  /** 资源值大小 */
+  public short size() {
+    return buffer.getShort(offset);
+  }
+
+  /** 0, 保留 */
+  public byte res0() {
+    return buffer.get(offset + 2);
+  }
+
+  /** 数据类型 */
+  public byte dataType() {
+    return buffer.get(offset + 3);
+  }
+
+  /** 数据 */
+  public int data() {
+    return buffer.getInt(offset + 4);
+  }
+
+  @Override
+  public String toString() {
+    return Config.BEAUTIFUL ?
+        "{" +
+            "size=" + size() +
+            ", res0=" + res0() +
+            ", dataType=" + ResValue.dataTypeStr(dataType()) +
+            ", data=" + ResValue.dataStr(dataType(), data()) +
+            '}'
+        :
+        "ValueView{" +
+            "size=" + size() +
+            ", res0=" + res0() +
+            ", dataType=" + ResValue.dataTypeStr(dataType()) +
+            ", data=" + ResValue.dataStr(dataType(), data()) +
+            '}';
+  }
+}
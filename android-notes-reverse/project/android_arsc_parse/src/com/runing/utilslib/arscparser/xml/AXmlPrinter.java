@@ -4,6 +4,7 @@ import com.runing.utilslib.arscparser.core.StringPoolChunkParser;
 import com.runing.utilslib.arscparser.type.*;
 import com.runing.utilslib.arscparser.util.Formatter;
 import com.runing.utilslib.arscparser.util.objectio.ObjectInput;
+import com.runing.utilslib.arscparser.util.objectio.StructInput;
 
 import java.io.Closeable;
 import java.io.IOException;
@@ -29,7 +30,7 @@ public class AXmlPrinter {
   private AXmlEditor aXmlEditor = new AXmlEditor();
   private Map<String, String> namespaceMap = new HashMap<>();
 
-  private void parseXMLTreeHeader(ObjectInput objectInput) throws IOException {
+  private void parseXMLTreeHeader(StructInput objectInput) throws IOException {
     ResXMLTreeHeader xmlTreeHeader = objectInput.read(ResXMLTreeHeader.class, mIndex);
 
     if (DEBUG_INFO) {
@@ -40,7 +41,7 @@ public class AXmlPrinter {
     mIndex += xmlTreeHeader.header.headerSize;
   }
 
-  private void parseStringPool(ObjectInput objectInput) throws IOException {
+  private void parseStringPool(StructInput objectInput) throws IOException {
     final long stringPoolIndex = mIndex;
     ResStringPoolHeader stringPoolHeader = objectInput.read(ResStringPoolHeader.class, stringPoolIndex);
     if (DEBUG_INFO) {
@@ -52,6 +53,11 @@ public class AXmlPrinter {
     stringPoolChunkParser.parseStringPoolChunk(objectInput, stringPoolHeader, stringPoolIndex);
 
     if (DEBUG_INFO) {
+      final String[] strings = stringPoolChunkParser.getStringPool();
+      for (int i = 0; i < strings.length; i++) {
+        System.out.println(i + " -> " + strings[i]);
+      }
+
       System.out.println();
       System.out.println("string index array:");
       System.out.println(Arrays.toString(stringPoolChunkParser.getStringIndexArray()));
@@ -88,7 +94,7 @@ public class AXmlPrinter {
     mIndex += stringPoolHeader.header.size;
   }
 
-  private void parseResourceIds(ObjectInput objectInput) throws IOException {
+  private void parseResourceIds(StructInput objectInput) throws IOException {
     ResChunkHeader header = objectInput.read(ResChunkHeader.class, mIndex);
     // 解析 xml 文件中出现的资源 ID。
     final int size = header.size;
@@ -108,7 +114,7 @@ public class AXmlPrinter {
     mIndex += header.size;
   }
 
-  private void parseStartNamespace(ObjectInput objectInput) throws IOException {
+  private void parseStartNamespace(StructInput objectInput) throws IOException {
     ResXMLTreeNode node = objectInput.read(ResXMLTreeNode.class, mIndex);
     int namespaceExtIndex = mIndex + node.header.headerSize;
 
@@ -152,7 +158,7 @@ public class AXmlPrinter {
     mIndex += node.header.size;
   }
 
-  private void parseStartElement(ObjectInput objectInput) throws IOException {
+  private void parseStartElement(StructInput objectInput) throws IOException {
     ResXMLTreeNode node = objectInput.read(ResXMLTreeNode.class, mIndex);
     if (PARSE_INFO) {
       System.out.println("node comment: " + (node.comment.index != -1 ? stringPool[node.comment.index] : ""));
@@ -193,8 +199,11 @@ public class AXmlPrinter {
 
     index += ObjectInput.sizeOf(ResXMLTreeAttrExt.class);
 
+    // 属性对象在循环中复用。
+    final ResXMLTreeAttribute attr = new ResXMLTreeAttribute();
+
     for (int i = 0; i < attrExt.attributeCount; i++) {
-      ResXMLTreeAttribute attr = objectInput.read(ResXMLTreeAttribute.class, index);
+      objectInput.read(attr, index);
 
       if (DEBUG_INFO) {
         System.out.println(attr);
@@ -244,7 +253,7 @@ public class AXmlPrinter {
     mIndex += node.header.size;
   }
 
-  private void parseCData(ObjectInput objectInput) throws IOException {
+  private void parseCData(StructInput objectInput) throws IOException {
     ResXMLTreeNode node = objectInput.read(ResXMLTreeNode.class, mIndex);
     if (PARSE_INFO) {
       System.out.println("node comment: " + (node.comment.index != -1 ? stringPool[node.comment.index] : ""));
@@ -271,7 +280,7 @@ public class AXmlPrinter {
     mIndex += node.header.size;
   }
 
-  private void parseEndElement(ObjectInput objectInput) throws IOException {
+  private void parseEndElement(StructInput objectInput) throws IOException {
     ResXMLTreeNode node = objectInput.read(ResXMLTreeNode.class, mIndex);
     if (PARSE_INFO) {
       System.out.println("node comment: " + (node.comment.index != -1 ? stringPool[node.comment.index] : ""));
@@ -304,7 +313,7 @@ public class AXmlPrinter {
     mIndex += node.header.size;
   }
 
-  private void parseEndNamespace(ObjectInput objectInput) throws IOException {
+  private void parseEndNamespace(StructInput objectInput) throws IOException {
     ResXMLTreeNode node = objectInput.read(ResXMLTreeNode.class, mIndex);
     if (PARSE_INFO) {
       System.out.println("node comment: " + (node.comment.index != -1 ? stringPool[node.comment.index] : ""));
@@ -338,7 +347,17 @@ public class AXmlPrinter {
     mIndex += node.header.size;
   }
 
-  private void print(ObjectInput objectInput) throws IOException {
+  /**
+   * 解析并打印二进制 xml，输入可以是文件，也可以是内存中的数据，例如从 APK 中直接读取的 AndroidManifest.xml。
+   *
+   * @param objectInput 二进制 xml 输入，由调用方负责关闭。
+   * @throws IOException 可能出现的 io 异常。
+   */
+  public void print(StructInput objectInput) throws IOException {
+    mIndex = 0;
+    stringPool = null;
+    namespaceMap.clear();
+
     while (!objectInput.isEof(mIndex)) {
       ResChunkHeader header = objectInput.read(ResChunkHeader.class, mIndex);
 
@@ -405,12 +424,9 @@ public class AXmlPrinter {
   }
 
   public void print(String file) throws IOException {
-    mIndex = 0;
-    stringPool = null;
-    namespaceMap.clear();
     ObjectInput objectInput = null;
     try {
-      objectInput = new ObjectInput(file);
+      objectInput = new ObjectInput(file, false, true);
       print(objectInput);
     } finally {
       closeQuietly(objectInput);